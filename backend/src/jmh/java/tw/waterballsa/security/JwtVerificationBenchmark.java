@@ -0,0 +1,97 @@
+package tw.waterballsa.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request's bearer token.
+ *
+ * - perRequestParse: the previous filter path - validateToken, getTokenType, getUserIdFromToken and
+ *   getRoleFromToken, each deriving the HMAC key, building a parser and verifying the signature
+ * - prebuiltParser: {@link JwtTokenProvider#parseToken}, one verification with the parser built at startup
+ * - verifiedCacheHit: {@link VerifiedTokenCache#resolve} for a token seen before (digest + lookup)
+ *
+ * @author Water Ball SA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtTokenProvider provider;
+    private VerifiedTokenCache cache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(provider, "meterRegistry", meterRegistry);
+        provider.init();
+
+        // Never started or published to: the benchmark only resolves tokens
+        cache = new VerifiedTokenCache(provider, new StringRedisTemplate(), new RedisMessageListenerContainer(),
+                meterRegistry, 50_000, 900_000L);
+        token = provider.generateAccessToken(42L);
+        cache.resolve(token);
+    }
+
+    @Benchmark
+    public void perRequestParse(Blackhole blackhole) {
+        blackhole.consume(claims(token) != null);
+        blackhole.consume(claims(token).get("type"));
+        blackhole.consume(Long.parseLong(claims(token).getSubject()));
+        blackhole.consume(claims(token).get("role"));
+    }
+
+    @Benchmark
+    public JwtPrincipal prebuiltParser() {
+        return provider.parseToken(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifiedCacheHit() {
+        return cache.resolve(token);
+    }
+
+    /**
+     * Parse as the provider did before the parser was prebuilt: new key and parser per call.
+     */
+    private static Claims claims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,76 @@
+package tw.waterballsa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tw.waterballsa.dto.SessionInfoResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of storing and loading one session in Redis.
+ *
+ * - jsonEncode / jsonDecode: the previous format, SessionInfoResponse as JSON text
+ * - binaryEncode / binaryDecode: {@link SessionCodec} v1
+ *
+ * Payload sizes of both formats are printed at the start of each benchmark.
+ *
+ * @author Water Ball SA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private SessionCodec codec;
+    private SessionInfoResponse session;
+    private String json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        codec = new SessionCodec(objectMapper);
+        session = new SessionInfoResponse(123456L, "小明", "someone.with.a.long.name@example.com", 5, 7500,
+                "STUDENT", List.of("google", "facebook"));
+
+        json = objectMapper.writeValueAsString(session);
+        binary = codec.encode(session);
+        System.out.printf("%nSession payload: json=%d bytes, binary=%d bytes%n",
+                json.getBytes(StandardCharsets.UTF_8).length, binary.length);
+    }
+
+    @Benchmark
+    public String jsonEncode() throws Exception {
+        return objectMapper.writeValueAsString(session);
+    }
+
+    @Benchmark
+    public SessionInfoResponse jsonDecode() throws Exception {
+        return objectMapper.readValue(json, SessionInfoResponse.class);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return codec.encode(session);
+    }
+
+    @Benchmark
+    public SessionInfoResponse binaryDecode() {
+        return codec.decode(binary);
+    }
+}
@@ -61,7 +61,8 @@ public class CorsConfig {
         configuration.setExposedHeaders(Arrays.asList(
             "Authorization",
             "Content-Type",
-            "X-Total-Count"
+            "X-Total-Count",
+            "X-Next-Cursor"
         ));
 
         // Cache preflight requests for 1 hour
@@ -0,0 +1,24 @@
+package tw.waterballsa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling configuration for background jobs.
+ *
+ * Purpose:
+ * - Periodic flush of buffered video progress heartbeats (write-behind mode)
+ * - Nightly rebuild of the Redis exp leaderboards
+ * - Hourly purge of expired purchase idempotency keys
+ * - Outbox relay of domain events and hourly purge of relayed events
+ * - Polling of pending payments whose gateway callback was lost
+ *
+ * Jobs share the scheduler pool (spring.task.scheduling.pool.size); one-off background work such as
+ * the startup leaderboard warm-up runs @Async on the application task executor.
+ */
+@Configuration
+@EnableScheduling
+@EnableAsync
+public class SchedulingConfig {
+}
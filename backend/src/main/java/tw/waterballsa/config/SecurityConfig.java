@@ -39,6 +39,7 @@ import java.util.Map;
  * Public Endpoints:
  * - /auth/oauth/** - OAuth authentication flows
  * - /actuator/health - Health check
+ * - /actuator/prometheus - Metrics scrape (not routed by nginx)
  *
  * Protected Endpoints:
  * - /profile/** - User profile management
@@ -110,10 +111,11 @@ public class SecurityConfig {
                                 "/login/oauth2/**"
                         ).permitAll()
 
-                        // Public endpoints - Health check
+                        // Public endpoints - Health check and Prometheus scrape (blocked at nginx)
                         .requestMatchers(
                                 "/actuator/health",
-                                "/actuator/info"
+                                "/actuator/info",
+                                "/actuator/prometheus"
                         ).permitAll()
 
                         // Public endpoints - Token refresh
@@ -0,0 +1,31 @@
+package tw.waterballsa.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Guard for the opt-in "virtual-threads" profile.
+ *
+ * spring.threads.virtual.enabled is silently ignored below Java 21, which would leave the
+ * profile's shorter DB connection timeout on platform threads. Fail at startup instead.
+ *
+ * Pinning hotspots in our code are kept off monitors: the progress buffer flush uses a
+ * ReentrantLock, and cache misses load outside Caffeine's map locks (see CacheLoads).
+ */
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    public VirtualThreadConfig() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            throw new IllegalStateException(
+                    "The virtual-threads profile requires Java 21 or newer, running on Java " + javaVersion);
+        }
+        logger.info("Virtual threads enabled for request handling, @Async and @Scheduled");
+    }
+}
@@ -13,6 +13,7 @@ import tw.waterballsa.model.User;
 import tw.waterballsa.model.UserCourseOwnership;
 import tw.waterballsa.repository.UserRepository;
 import tw.waterballsa.service.CourseService;
+import tw.waterballsa.service.OwnedCourseCache.OwnedCourseIds;
 
 import java.util.HashMap;
 import java.util.List;
@@ -45,13 +46,13 @@ public class CourseController {
     ) {
         List<Course> courses = courseService.getAllPublishedCourses();
 
-        // Check ownership for authenticated users
+        // Check ownership for authenticated users (one cached lookup for the whole catalog)
+        OwnedCourseIds ownedCourseIds = userId != null
+            ? courseService.getOwnedCourseIds(userId)
+            : OwnedCourseIds.EMPTY;
+
         List<CourseListResponse> response = courses.stream()
-            .map(course -> {
-                boolean isOwned = userId != null &&
-                    courseService.userOwnsCourse(userId, course.getCourseId());
-                return new CourseListResponse(course, isOwned);
-            })
+            .map(course -> new CourseListResponse(course, ownedCourseIds.contains(course.getCourseId())))
             .collect(Collectors.toList());
 
         return ResponseEntity.ok(response);
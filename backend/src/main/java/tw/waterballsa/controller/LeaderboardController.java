@@ -0,0 +1,73 @@
+package tw.waterballsa.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tw.waterballsa.dto.LeaderboardEntryResponse;
+import tw.waterballsa.dto.LeaderboardResponse;
+import tw.waterballsa.service.LeaderboardService;
+
+/**
+ * REST API Controller for exp leaderboards.
+ *
+ * Endpoints:
+ * - GET /api/leaderboard - Global top-N (paginated)
+ * - GET /api/leaderboard/me - Current user's global rank
+ * - GET /api/leaderboard/courses/{courseId} - Course top-N (paginated)
+ * - GET /api/leaderboard/courses/{courseId}/me - Current user's rank in a course
+ *
+ * @author Water Ball SA
+ */
+@RestController
+@RequestMapping("/api/leaderboard")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    /**
+     * GET /api/leaderboard?page=1&size=20 - Global leaderboard page.
+     */
+    @GetMapping
+    public ResponseEntity<LeaderboardResponse> getGlobalLeaderboard(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(leaderboardService.getGlobalLeaderboard(page, size));
+    }
+
+    /**
+     * GET /api/leaderboard/me - Current user's global rank.
+     */
+    @GetMapping("/me")
+    public ResponseEntity<LeaderboardEntryResponse> getMyGlobalRank(@AuthenticationPrincipal Long userId) {
+        return ResponseEntity.ok(leaderboardService.getGlobalRank(userId));
+    }
+
+    /**
+     * GET /api/leaderboard/courses/{courseId}?page=1&size=20 - Course leaderboard page.
+     */
+    @GetMapping("/courses/{courseId}")
+    public ResponseEntity<LeaderboardResponse> getCourseLeaderboard(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(leaderboardService.getCourseLeaderboard(courseId, page, size));
+    }
+
+    /**
+     * GET /api/leaderboard/courses/{courseId}/me - Current user's rank in a course.
+     */
+    @GetMapping("/courses/{courseId}/me")
+    public ResponseEntity<LeaderboardEntryResponse> getMyCourseRank(
+            @PathVariable Long courseId,
+            @AuthenticationPrincipal Long userId) {
+        return ResponseEntity.ok(leaderboardService.getCourseRank(courseId, userId));
+    }
+}
@@ -5,14 +5,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import tw.waterballsa.dto.CursorPageResponse;
 import tw.waterballsa.dto.OrderResponse;
 import tw.waterballsa.model.Order;
 import tw.waterballsa.service.OrderService;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * REST Controller for order-related endpoints.
@@ -25,6 +24,8 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "${cors.allowed-origins}", allowCredentials = "true")
 public class OrderController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private OrderService orderService;
 
@@ -32,13 +33,18 @@ public class OrderController {
      * POST /api/orders/purchase - Create a direct purchase order.
      * Requires authentication.
      *
+     * An optional Idempotency-Key header makes retries safe: a repeated key returns the
+     * response of the first submission instead of creating another order.
+     *
      * @param courseId the ID of the course to purchase
+     * @param idempotencyKey optional client-generated key (e.g. a UUID per checkout attempt)
      * @param userId the authenticated user ID
-     * @return the created order with payment status
+     * @return the order with payment status: 202 while the payment is pending, 201 once settled
      */
     @PostMapping("/purchase")
     public ResponseEntity<?> createPurchase(
         @RequestParam Long courseId,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
         @AuthenticationPrincipal Long userId
     ) {
         if (userId == null) {
@@ -49,10 +55,20 @@ public class OrderController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
 
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 255)) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Bad Request");
+            error.put("message", "Idempotency-Key 格式錯誤");
+            error.put("code", "INVALID_IDEMPOTENCY_KEY");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
         try {
-            Order order = orderService.createDirectPurchase(userId, courseId);
-            OrderResponse response = new OrderResponse(order);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            OrderResponse response = orderService.createDirectPurchase(userId, courseId, idempotencyKey);
+            HttpStatus status = Order.PaymentStatus.PENDING.name().equals(response.getPaymentStatus())
+                    ? HttpStatus.ACCEPTED
+                    : HttpStatus.CREATED;
+            return ResponseEntity.status(status).body(response);
         } catch (IllegalArgumentException e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Bad Request");
@@ -75,14 +91,21 @@ public class OrderController {
     }
 
     /**
-     * GET /api/orders - Get order history for authenticated user.
+     * GET /api/orders?size=20&cursor=... - Get one page of order history for authenticated user.
      * Requires authentication.
      *
+     * The body stays a plain list of orders; the cursor of the next page is returned in the
+     * X-Next-Cursor header (absent on the last page).
+     *
+     * @param cursor cursor from a previous X-Next-Cursor header (omit for the first page)
+     * @param size page size (max 50)
      * @param userId the authenticated user ID
      * @return list of orders ordered by creation date (newest first)
      */
     @GetMapping
     public ResponseEntity<?> getOrderHistory(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size,
         @AuthenticationPrincipal Long userId
     ) {
         if (userId == null) {
@@ -93,12 +116,22 @@ public class OrderController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
 
-        List<Order> orders = orderService.getOrderHistory(userId);
-        List<OrderResponse> response = orders.stream()
-                .map(OrderResponse::new)
-                .collect(Collectors.toList());
+        CursorPageResponse<OrderResponse> page;
+        try {
+            page = orderService.getOrderHistory(userId, cursor, size);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Bad Request");
+            error.put("message", "無效的分頁游標");
+            error.put("code", "INVALID_CURSOR");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
 
-        return ResponseEntity.ok(response);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     /**
@@ -1,5 +1,7 @@
 package tw.waterballsa.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,10 +10,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tw.waterballsa.dto.CursorPageResponse;
 import tw.waterballsa.dto.ErrorResponse;
 import tw.waterballsa.dto.UpdateUserRoleRequest;
 import tw.waterballsa.dto.UserListResponse;
@@ -19,6 +31,13 @@ import tw.waterballsa.exception.ResourceNotFoundException;
 import tw.waterballsa.model.UserRole;
 import tw.waterballsa.service.UserService;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -27,6 +46,9 @@ import java.util.List;
  *
  * Endpoints:
  * - GET /api/admin/users - List all users
+ * - GET /api/admin/users?paging=cursor - List users with keyset pagination
+ * - GET /api/admin/users/search - Search users by exact email or nickname prefix
+ * - GET /api/admin/users/all - Stream an export of all users (json, jsonl, csv)
  * - GET /api/admin/users/{id} - Get user details
  * - PUT /api/admin/users/{id}/role - Update user role
  *
@@ -42,6 +64,9 @@ public class UserManagementController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Get all users with pagination.
      *
@@ -71,28 +96,204 @@ public class UserManagementController {
     }
 
     /**
-     * Get all users without pagination.
+     * Get users with keyset (cursor) pagination, newest first.
      *
-     * GET /admin/users/all
+     * GET /admin/users?paging=cursor&size=20&cursor={next_cursor|prev_cursor}&estimate_total=true
      *
-     * @return list of all users
+     * Every page costs the same regardless of depth: no OFFSET and no COUNT(*).
+     * The optional total is the planner estimate, not an exact count.
+     *
+     * @param cursor opaque cursor from a previous response (omit for the first page)
+     * @param size page size (max 100)
+     * @param estimateTotal whether to include estimated_total
+     * @return page of users with next/prev cursors
      */
-    @GetMapping("/all")
-    public ResponseEntity<List<UserListResponse>> getAllUsersNoPagination() {
+    @GetMapping(params = "paging=cursor")
+    public ResponseEntity<?> getUsersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(name = "estimate_total", defaultValue = "false") boolean estimateTotal
+    ) {
         try {
-            logger.info("Admin fetching all users without pagination");
+            CursorPageResponse<UserListResponse> users = userService.getUsersByCursor(cursor, size, estimateTotal);
+
+            logger.info("Successfully fetched {} users by cursor", users.getItems().size());
+
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("INVALID_CURSOR", "無效的分頁游標"));
+        } catch (Exception e) {
+            logger.error("Failed to fetch users list by cursor", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "系統錯誤，請稍後再試"));
+        }
+    }
 
-            List<UserListResponse> users = userService.getAllUsers();
+    /**
+     * Search users by exact email or nickname prefix.
+     *
+     * GET /admin/users/search?q=alice@example.com
+     * GET /admin/users/search?q=ali&limit=20
+     *
+     * @param query full email address, or the beginning of a nickname
+     * @param limit max number of results (max 100)
+     * @return matching users
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            List<UserListResponse> users = userService.searchUsers(query, limit);
 
-            logger.info("Successfully fetched {} users", users.size());
+            logger.info("Admin user search returned {} users", users.size());
 
             return ResponseEntity.ok(users);
         } catch (Exception e) {
-            logger.error("Failed to fetch all users", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            logger.error("Failed to search users", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "系統錯誤，請稍後再試"));
         }
     }
 
+    /**
+     * Export all users without pagination, streamed straight to the response.
+     *
+     * GET /admin/users/all?format=json|jsonl|csv
+     *
+     * Users are read in keyset batches and each batch is written and flushed before the next
+     * one is loaded, so memory stays flat and the first bytes go out immediately.
+     * - json (default): a JSON array, same shape as before
+     * - jsonl: one JSON object per line
+     * - csv: header row plus one row per user, providers joined with ';'
+     *
+     * @param format output format
+     * @return streamed export
+     */
+    @GetMapping("/all")
+    public ResponseEntity<?> getAllUsersNoPagination(@RequestParam(defaultValue = "json") String format) {
+        logger.info("Admin exporting all users: format={}", format);
+
+        StreamingResponseBody body;
+        MediaType contentType;
+        switch (format) {
+            case "json" -> {
+                contentType = MediaType.APPLICATION_JSON;
+                body = this::writeJsonArray;
+            }
+            case "jsonl" -> {
+                contentType = MediaType.parseMediaType("application/x-ndjson");
+                body = this::writeJsonLines;
+            }
+            case "csv" -> {
+                contentType = MediaType.parseMediaType("text/csv;charset=UTF-8");
+                body = this::writeCsv;
+            }
+            default -> {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("INVALID_FORMAT", "不支援的匯出格式"));
+            }
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(contentType);
+        if ("csv".equals(format)) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"");
+        }
+        return response.body(body);
+    }
+
+    private void writeJsonArray(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            long exported = exportBatches(batch -> {
+                for (UserListResponse user : batch) {
+                    generator.writeObject(user);
+                }
+                generator.flush();
+            });
+            generator.writeEndArray();
+            logger.info("Successfully exported {} users as JSON", exported);
+        }
+    }
+
+    private void writeJsonLines(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            // One object per line instead of Jackson's default space between root values
+            generator.setRootValueSeparator(null);
+            long exported = exportBatches(batch -> {
+                for (UserListResponse user : batch) {
+                    generator.writeObject(user);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            });
+            logger.info("Successfully exported {} users as JSON Lines", exported);
+        }
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("user_id,nickname,email,role,level,created_at,oauth_providers\n");
+        long exported = exportBatches(batch -> {
+            for (UserListResponse user : batch) {
+                writer.write(String.join(",",
+                        String.valueOf(user.getUserId()),
+                        csvField(user.getNickname()),
+                        csvField(user.getEmail()),
+                        csvField(user.getRole()),
+                        String.valueOf(user.getLevel()),
+                        user.getCreatedAt() != null ? user.getCreatedAt().toString() : "",
+                        csvField(String.join(";", user.getOauthProviders()))));
+                writer.write('\n');
+            }
+            writer.flush();
+        });
+        writer.flush();
+        logger.info("Successfully exported {} users as CSV", exported);
+    }
+
+    /**
+     * Run the batched export, letting the batch writer throw IOException.
+     */
+    private long exportBatches(BatchWriter writer) throws IOException {
+        try {
+            return userService.forEachUserBatch(batch -> {
+                try {
+                    writer.write(batch);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client went away or the stream broke mid-export
+            logger.warn("User export aborted: {}", e.getMessage());
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Quote a CSV field when needed and neutralise spreadsheet formulas.
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(List<UserListResponse> batch) throws IOException;
+    }
+
     /**
      * Get user details by ID.
      *
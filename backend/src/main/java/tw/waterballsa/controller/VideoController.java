@@ -7,10 +7,9 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import tw.waterballsa.dto.VideoCompletionResponse;
 import tw.waterballsa.dto.VideoCompletionStatusResponse;
-import tw.waterballsa.model.User;
 import tw.waterballsa.model.UserVideoProgress;
 import tw.waterballsa.model.VideoCompletion;
-import tw.waterballsa.repository.UserRepository;
+import tw.waterballsa.repository.VideoCompletionRepositoryCustom.CompletionOutcome;
 import tw.waterballsa.service.VideoCompletionService;
 import tw.waterballsa.service.VideoProgressService;
 
@@ -31,14 +30,11 @@ public class VideoController {
 
     private final VideoCompletionService videoCompletionService;
     private final VideoProgressService videoProgressService;
-    private final UserRepository userRepository;
 
     public VideoController(VideoCompletionService videoCompletionService,
-                            VideoProgressService videoProgressService,
-                            UserRepository userRepository) {
+                            VideoProgressService videoProgressService) {
         this.videoCompletionService = videoCompletionService;
         this.videoProgressService = videoProgressService;
-        this.userRepository = userRepository;
     }
 
     /**
@@ -58,43 +54,27 @@ public class VideoController {
 
         logger.info("Received video completion request: videoId={}, userId={}", videoId, userId);
 
-        // Get authenticated user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + userId));
+        // Complete the video (idempotent, atomic exp award)
+        CompletionOutcome outcome = videoCompletionService.completeVideo(userId, videoId);
 
-        // Check if already completed
-        boolean wasAlreadyCompleted = videoCompletionService.hasCompletedVideo(user.getUserId(), videoId);
-
-        // Get user's state before completion (for level-up detection)
-        int levelBeforeCompletion = user.getLevel();
-
-        // Complete the video (idempotent)
-        VideoCompletion completion = videoCompletionService.completeVideo(user.getUserId(), videoId);
-
-        // Refresh user to get updated exp/level
-        user = userRepository.findById(user.getUserId())
-                .orElseThrow(() -> new IllegalStateException("User not found after completion"));
-
-        // Check if user leveled up
-        boolean leveledUp = user.getLevel() > levelBeforeCompletion;
+        boolean wasAlreadyCompleted = outcome.isAlreadyCompleted();
+        boolean leveledUp = outcome.isLeveledUp();
 
         // Build response
         VideoCompletionResponse response = new VideoCompletionResponse(
-                completion.getCompletionId(),
+                outcome.getCompletionId(),
                 videoId,
-                user.getUserId(),
-                completion.getExpAwarded(),
+                userId,
+                outcome.getExpAwarded(),
                 leveledUp,
-                user.getLevel(),
-                user.getExp(),
-                user.getExpForNextLevel(),
-                user.getExpProgressPercentage(),
-                completion.getCompletedAt(),
+                outcome.getLevel(),
+                outcome.getExp(),
+                outcome.getCompletedAt(),
                 wasAlreadyCompleted
         );
 
         logger.info("Video completion processed: videoId={}, userId={}, leveledUp={}, alreadyCompleted={}",
-                videoId, user.getUserId(), leveledUp, wasAlreadyCompleted);
+                videoId, userId, leveledUp, wasAlreadyCompleted);
 
         return ResponseEntity.ok(response);
     }
@@ -115,12 +95,8 @@ public class VideoController {
 
         logger.info("Checking video completion status: videoId={}, userId={}", videoId, userId);
 
-        // Get authenticated user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + userId));
-
         // Check completion status
-        VideoCompletion completion = videoCompletionService.getCompletion(user.getUserId(), videoId);
+        VideoCompletion completion = videoCompletionService.getCompletion(userId, videoId);
 
         VideoCompletionStatusResponse response;
         if (completion != null) {
@@ -179,6 +155,9 @@ public class VideoController {
             response.put("updatedAt", progress.getUpdatedAt());
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Cannot save progress: videoId={}, userId={}, reason={}", videoId, userId, e.getMessage());
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Failed to save progress: videoId={}, userId={}", videoId, userId, e);
             return ResponseEntity.status(500).body(Map.of("error", "儲存進度失敗"));
@@ -0,0 +1,94 @@
+package tw.waterballsa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of a cursor (keyset) paginated list.
+ *
+ * Cursors are opaque strings; pass next_cursor / prev_cursor back as the cursor parameter
+ * to move forward / backward. A null cursor means there is no page in that direction.
+ *
+ * Format:
+ * {
+ *   "items": [...],
+ *   "size": 20,
+ *   "next_cursor": "bjoxMjM",
+ *   "prev_cursor": null,
+ *   "estimated_total": 104500
+ * }
+ *
+ * @param <T> item type
+ * @author Water Ball SA
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+
+    private List<T> items;
+
+    private int size;
+
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    @JsonProperty("prev_cursor")
+    private String prevCursor;
+
+    /**
+     * Planner estimate of the total row count (only when requested); not exact.
+     */
+    @JsonProperty("estimated_total")
+    private Long estimatedTotal;
+
+    public CursorPageResponse(List<T> items, int size, String nextCursor, String prevCursor, Long estimatedTotal) {
+        this.items = items;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    // Getters and Setters
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public void setPrevCursor(String prevCursor) {
+        this.prevCursor = prevCursor;
+    }
+
+    public Long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    public void setEstimatedTotal(Long estimatedTotal) {
+        this.estimatedTotal = estimatedTotal;
+    }
+}
@@ -0,0 +1,75 @@
+package tw.waterballsa.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One row of an exp leaderboard.
+ *
+ * @author Water Ball SA
+ */
+public class LeaderboardEntryResponse {
+
+    /**
+     * 1-based rank, or null if the user isn't on the board yet.
+     */
+    private Long rank;
+
+    @JsonProperty("user_id")
+    private Long userId;
+
+    private String nickname;
+
+    private Integer exp;
+
+    private Integer level;
+
+    public LeaderboardEntryResponse(Long rank, Long userId, String nickname, Integer exp, Integer level) {
+        this.rank = rank;
+        this.userId = userId;
+        this.nickname = nickname;
+        this.exp = exp;
+        this.level = level;
+    }
+
+    // Getters and Setters
+
+    public Long getRank() {
+        return rank;
+    }
+
+    public void setRank(Long rank) {
+        this.rank = rank;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getNickname() {
+        return nickname;
+    }
+
+    public void setNickname(String nickname) {
+        this.nickname = nickname;
+    }
+
+    public Integer getExp() {
+        return exp;
+    }
+
+    public void setExp(Integer exp) {
+        this.exp = exp;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+
+    public void setLevel(Integer level) {
+        this.level = level;
+    }
+}
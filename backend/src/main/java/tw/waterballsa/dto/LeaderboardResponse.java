@@ -0,0 +1,54 @@
+package tw.waterballsa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of an exp leaderboard (global, or per course when course_id is set).
+ *
+ * @author Water Ball SA
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LeaderboardResponse {
+
+    @JsonProperty("course_id")
+    private Long courseId;
+
+    private List<LeaderboardEntryResponse> entries;
+
+    private PaginationResponse pagination;
+
+    public LeaderboardResponse(Long courseId, List<LeaderboardEntryResponse> entries, PaginationResponse pagination) {
+        this.courseId = courseId;
+        this.entries = entries;
+        this.pagination = pagination;
+    }
+
+    // Getters and Setters
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public List<LeaderboardEntryResponse> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<LeaderboardEntryResponse> entries) {
+        this.entries = entries;
+    }
+
+    public PaginationResponse getPagination() {
+        return pagination;
+    }
+
+    public void setPagination(PaginationResponse pagination) {
+        this.pagination = pagination;
+    }
+}
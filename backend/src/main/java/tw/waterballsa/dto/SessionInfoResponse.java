@@ -2,6 +2,7 @@ package tw.waterballsa.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import tw.waterballsa.model.LevelCurve;
 
 import java.util.List;
 
@@ -53,16 +54,19 @@ public class SessionInfoResponse {
     public SessionInfoResponse() {
     }
 
+    /**
+     * Level progress fields are derived from level and exp using the shared {@link LevelCurve}.
+     */
     public SessionInfoResponse(Long userId, String nickname, String email, Integer level, Integer exp,
-                                Integer expForNextLevel, Integer expProgressPercentage,
                                 String role, List<String> oauthProviders) {
+        LevelCurve curve = LevelCurve.getDefault();
         this.userId = userId;
         this.nickname = nickname;
         this.email = email;
         this.level = level;
         this.exp = exp;
-        this.expForNextLevel = expForNextLevel;
-        this.expProgressPercentage = expProgressPercentage;
+        this.expForNextLevel = curve.expToNextLevel(level, exp);
+        this.expProgressPercentage = (int) curve.progressPercentage(level, exp);
         this.role = role;
         this.oauthProviders = oauthProviders;
     }
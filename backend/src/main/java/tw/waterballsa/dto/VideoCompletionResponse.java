@@ -1,6 +1,7 @@
 package tw.waterballsa.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import tw.waterballsa.model.LevelCurve;
 
 import java.time.LocalDateTime;
 
@@ -45,11 +46,11 @@ public class VideoCompletionResponse {
     @JsonProperty("already_completed")
     private Boolean alreadyCompleted;
 
-    // Constructor for new completion
+    // Constructor for new completion; level progress is derived from the shared LevelCurve
     public VideoCompletionResponse(Long completionId, Long videoId, Long userId, Integer expAwarded,
                                     Boolean leveledUp, Integer currentLevel, Integer currentExp,
-                                    Integer expForNextLevel, Integer expProgressPercentage,
                                     LocalDateTime completedAt, Boolean alreadyCompleted) {
+        LevelCurve curve = LevelCurve.getDefault();
         this.completionId = completionId;
         this.videoId = videoId;
         this.userId = userId;
@@ -57,8 +58,8 @@ public class VideoCompletionResponse {
         this.leveledUp = leveledUp;
         this.currentLevel = currentLevel;
         this.currentExp = currentExp;
-        this.expForNextLevel = expForNextLevel;
-        this.expProgressPercentage = expProgressPercentage;
+        this.expForNextLevel = curve.expToNextLevel(currentLevel, currentExp);
+        this.expProgressPercentage = (int) curve.progressPercentage(currentLevel, currentExp);
         this.completedAt = completedAt;
         this.alreadyCompleted = alreadyCompleted;
     }
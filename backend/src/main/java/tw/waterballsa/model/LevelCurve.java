@@ -0,0 +1,138 @@
+package tw.waterballsa.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable exp-to-level curve shared by the User entity, LevelService and response DTOs.
+ *
+ * Thresholds are loaded once from the classpath resource {@code level-curve.txt}
+ * (one total-exp value per level, starting at level 1 = 0). Lookups are a binary search
+ * over a precomputed int[] and never allocate.
+ *
+ * @author Water Ball SA
+ */
+public final class LevelCurve {
+
+    static final String RESOURCE = "/level-curve.txt";
+
+    private static final LevelCurve DEFAULT = load(RESOURCE);
+
+    /**
+     * Total exp required to reach each level (index = level - 1).
+     */
+    private final int[] thresholds;
+
+    private LevelCurve(int[] thresholds) {
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * Get the curve loaded from {@code level-curve.txt}.
+     */
+    public static LevelCurve getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get the highest reachable level.
+     */
+    public int getMaxLevel() {
+        return thresholds.length;
+    }
+
+    /**
+     * Calculate level from total experience points.
+     *
+     * @param totalExp total exp (negative values are treated as 0)
+     * @return level between 1 and {@link #getMaxLevel()}
+     */
+    public int levelFor(int totalExp) {
+        int index = Arrays.binarySearch(thresholds, Math.max(totalExp, 0));
+        // Exact hit: index is the level's slot; otherwise insertion point - 1 is the level reached
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Get total exp required to reach a level.
+     */
+    public int expRequiredFor(int level) {
+        return thresholds[Math.min(Math.max(level, 1), thresholds.length) - 1];
+    }
+
+    /**
+     * Get exp still needed to reach the next level.
+     * Returns -1 if at max level.
+     */
+    public int expToNextLevel(int level, int totalExp) {
+        if (level >= thresholds.length) {
+            return -1; // Max level reached
+        }
+        return thresholds[level] - totalExp;
+    }
+
+    /**
+     * Get progress percentage towards the next level (0-100).
+     * Returns 100 if at max level.
+     */
+    public double progressPercentage(int level, int totalExp) {
+        if (level >= thresholds.length) {
+            return 100.0; // Max level
+        }
+
+        int currentLevelExp = thresholds[level - 1];
+        int nextLevelExp = thresholds[level];
+        double progress = (totalExp - currentLevelExp) * 100.0 / (nextLevelExp - currentLevelExp);
+        return Math.min(Math.max(progress, 0.0), 100.0);
+    }
+
+    /**
+     * Get a copy of the thresholds (index = level - 1), e.g. to recompute level inside SQL.
+     */
+    public int[] getThresholds() {
+        return thresholds.clone();
+    }
+
+    /**
+     * Load and validate a curve from a classpath resource.
+     *
+     * @throws IllegalStateException if the resource is missing or malformed
+     */
+    static LevelCurve load(String resource) {
+        try (InputStream in = LevelCurve.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Level curve resource not found: " + resource);
+            }
+
+            List<Integer> values = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                values.add(Integer.parseInt(line));
+            }
+
+            int[] thresholds = values.stream().mapToInt(Integer::intValue).toArray();
+            if (thresholds.length == 0 || thresholds[0] != 0) {
+                throw new IllegalStateException("Level curve must start at 0 exp: " + resource);
+            }
+            for (int i = 1; i < thresholds.length; i++) {
+                if (thresholds[i] <= thresholds[i - 1]) {
+                    throw new IllegalStateException("Level curve must be strictly increasing at level " + (i + 1));
+                }
+            }
+            return new LevelCurve(thresholds);
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Failed to load level curve: " + resource, e);
+        }
+    }
+}
@@ -97,17 +97,29 @@ public class Order {
 
     /**
      * Mark this order as paid.
+     *
+     * @throws IllegalStateException if the order is not pending
      */
     public void markAsPaid(String paymentMethod) {
-        this.paymentStatus = PaymentStatus.PAID;
+        transitionTo(PaymentStatus.PAID);
         this.paymentMethod = paymentMethod;
     }
 
     /**
      * Cancel this order.
+     *
+     * @throws IllegalStateException if the order is not pending
      */
     public void cancel() {
-        this.paymentStatus = PaymentStatus.CANCELLED;
+        transitionTo(PaymentStatus.CANCELLED);
+    }
+
+    private void transitionTo(PaymentStatus next) {
+        if (!paymentStatus.canTransitionTo(next)) {
+            throw new IllegalStateException("Invalid payment status transition: orderId=" + orderId
+                    + ", " + paymentStatus + " -> " + next);
+        }
+        this.paymentStatus = next;
     }
 
     // Getters and Setters
@@ -182,9 +194,23 @@ public class Order {
      * Payment status enum for orders.
      */
     public enum PaymentStatus {
-        PENDING,    // Order created but not yet paid
+        PENDING,    // Order created, payment submitted to the gateway
         PAID,       // Payment completed successfully
-        CANCELLED,  // Order cancelled
-        REFUNDED    // Payment refunded
+        CANCELLED,  // Order cancelled or payment failed
+        REFUNDED;   // Payment refunded
+
+        /**
+         * Allowed transitions: PENDING -> PAID | CANCELLED, PAID -> REFUNDED (no refund flow exists yet).
+         */
+        public boolean canTransitionTo(PaymentStatus next) {
+            switch (this) {
+                case PENDING:
+                    return next == PAID || next == CANCELLED;
+                case PAID:
+                    return next == REFUNDED;
+                default:
+                    return false;
+            }
+        }
     }
 }
@@ -0,0 +1,126 @@
+package tw.waterballsa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * OutboxEvent entity representing a domain event in the transactional outbox.
+ * Written in the same transaction as the change it describes and relayed to listeners
+ * after commit by the outbox relay (at-least-once).
+ *
+ * @author Water Ball SA
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    /** An order was paid and course ownership granted. Aggregate: order ID. */
+    public static final String PURCHASE_COMPLETED = "PurchaseCompleted";
+
+    /** A video was completed for the first time and exp awarded. Aggregate: completion ID. */
+    public static final String VIDEO_COMPLETED = "VideoCompleted";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Constructors
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String eventType, Long aggregateId, String payload) {
+        this.eventType = eventType;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+    }
+
+    // Lifecycle callbacks
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Business methods
+
+    /**
+     * Mark this event as delivered to all listeners.
+     */
+    public void markPublished() {
+        this.publishedAt = LocalDateTime.now();
+        this.lastError = null;
+    }
+
+    /**
+     * Record a failed delivery attempt.
+     *
+     * @param error failure description (truncated to the column length)
+     */
+    public void recordFailure(String error) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    // Getters
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
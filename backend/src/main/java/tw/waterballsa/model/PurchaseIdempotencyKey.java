@@ -0,0 +1,98 @@
+package tw.waterballsa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+/**
+ * PurchaseIdempotencyKey entity storing the response of a purchase submitted with an Idempotency-Key.
+ * Written in the same transaction as the order, so a stored key always points at a committed order.
+ *
+ * @author Water Ball SA
+ */
+@Entity
+@Table(name = "purchase_idempotency_keys", uniqueConstraints = {
+    @UniqueConstraint(name = "uq_purchase_idempotency_key", columnNames = {"user_id", "idempotency_key"})
+})
+public class PurchaseIdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "idempotency_id")
+    private Long idempotencyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "response_body", nullable = false, columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+
+    public PurchaseIdempotencyKey() {
+    }
+
+    public PurchaseIdempotencyKey(Long userId, String idempotencyKey, Long courseId, Long orderId,
+                                  String responseBody) {
+        this.userId = userId;
+        this.idempotencyKey = idempotencyKey;
+        this.courseId = courseId;
+        this.orderId = orderId;
+        this.responseBody = responseBody;
+    }
+
+    // Lifecycle callbacks
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters
+
+    public Long getIdempotencyId() {
+        return idempotencyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -10,11 +10,15 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * User entity representing a registered user in the Water Ball Platform.
  * Contains encrypted PII fields (email, birthday, location) stored as BYTEA in PostgreSQL.
  *
+ * PII is decrypted lazily: loading a user keeps only the ciphertext, and each field is decrypted
+ * the first time its getter is called. Paths that never read PII pay no crypto cost.
+ *
  * @author Water Ball SA
  */
 @Entity
@@ -31,10 +35,14 @@ public class User {
 
     /**
      * Encrypted email stored as BYTEA. Use getEmail()/setEmail() to access the plaintext value.
-     * The EncryptionConverter automatically encrypts/decrypts this field.
      */
     @Column(name = "email_encrypted", nullable = false, columnDefinition = "BYTEA")
-    @Convert(converter = EncryptionConverter.class)
+    private byte[] emailEncrypted;
+
+    /**
+     * Decrypted email, filled on first getEmail() call.
+     */
+    @Transient
     private String email;
 
     /**
@@ -51,14 +59,18 @@ public class User {
      * Encrypted birthday stored as BYTEA. Use getBirthday()/setBirthday() to access the plaintext value.
      */
     @Column(name = "birthday_encrypted", columnDefinition = "BYTEA")
-    @Convert(converter = EncryptionConverter.class)
-    private String birthday; // Stored as ISO date string (YYYY-MM-DD)
+    private byte[] birthdayEncrypted; // Stored as ISO date string (YYYY-MM-DD)
+
+    @Transient
+    private String birthday;
 
     /**
      * Encrypted location stored as BYTEA. Use getLocation()/setLocation() to access the plaintext value.
      */
     @Column(name = "location_encrypted", columnDefinition = "BYTEA")
-    @Convert(converter = EncryptionConverter.class)
+    private byte[] locationEncrypted;
+
+    @Transient
     private String location;
 
     @Column(name = "occupation", length = 100)
@@ -108,7 +120,7 @@ public class User {
         setEmail(email); // This will also set emailHash
         this.gender = gender;
         setBirthday(birthday);
-        this.location = location;
+        setLocation(location);
         this.occupation = occupation;
         this.githubLink = githubLink;
     }
@@ -135,6 +147,16 @@ public class User {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Drop decrypted values so they are re-read from the (re)loaded ciphertext.
+     */
+    @PostLoad
+    protected void onLoad() {
+        this.email = null;
+        this.birthday = null;
+        this.location = null;
+    }
+
     // Getters and Setters
 
     public Long getUserId() {
@@ -153,16 +175,27 @@ public class User {
         this.nickname = nickname;
     }
 
+    /**
+     * Get email, decrypting it on first access.
+     */
     public String getEmail() {
+        if (email == null && emailEncrypted != null) {
+            email = EncryptionConverter.decrypt(emailEncrypted);
+        }
         return email;
     }
 
     /**
      * Set email and automatically compute SHA-256 hash for email_hash column.
-     * The email will be encrypted by EncryptionConverter before database storage.
+     * The email is encrypted immediately for database storage.
      */
     public void setEmail(String email) {
+        // Re-encrypting an unchanged value would produce a new IV and a needless UPDATE
+        if (emailEncrypted != null && Objects.equals(email, getEmail())) {
+            return;
+        }
         this.email = email;
+        this.emailEncrypted = EncryptionConverter.encrypt(email);
         if (email != null && !email.isEmpty()) {
             this.emailHash = computeEmailHash(email);
         }
@@ -181,9 +214,12 @@ public class User {
     }
 
     /**
-     * Get birthday as LocalDate. Returns null if birthday is not set.
+     * Get birthday as LocalDate, decrypting it on first access. Returns null if birthday is not set.
      */
     public LocalDate getBirthday() {
+        if (birthday == null && birthdayEncrypted != null) {
+            birthday = EncryptionConverter.decrypt(birthdayEncrypted);
+        }
         if (birthday == null || birthday.isEmpty()) {
             return null;
         }
@@ -191,19 +227,33 @@ public class User {
     }
 
     /**
-     * Set birthday from LocalDate. The date will be stored as ISO string (YYYY-MM-DD)
-     * and encrypted by EncryptionConverter.
+     * Set birthday from LocalDate. The date is stored as ISO string (YYYY-MM-DD)
+     * and encrypted immediately.
      */
     public void setBirthday(LocalDate birthday) {
+        if (Objects.equals(birthday, getBirthday())) {
+            return;
+        }
         this.birthday = (birthday != null) ? birthday.toString() : null;
+        this.birthdayEncrypted = EncryptionConverter.encrypt(this.birthday);
     }
 
+    /**
+     * Get location, decrypting it on first access.
+     */
     public String getLocation() {
+        if (location == null && locationEncrypted != null) {
+            location = EncryptionConverter.decrypt(locationEncrypted);
+        }
         return location;
     }
 
     public void setLocation(String location) {
+        if (Objects.equals(location, getLocation())) {
+            return;
+        }
         this.location = location;
+        this.locationEncrypted = EncryptionConverter.encrypt(location);
     }
 
     public String getOccupation() {
@@ -282,7 +332,7 @@ public class User {
      * Compute SHA-256 hash of email for email_hash column.
      * This hash is used for uniqueness constraint and lookups without exposing the encrypted email.
      */
-    private String computeEmailHash(String email) {
+    public static String computeEmailHash(String email) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hashBytes = digest.digest(email.toLowerCase().getBytes(StandardCharsets.UTF_8));
@@ -323,54 +373,18 @@ public class User {
 
     /**
      * Calculate level based on total experience points.
-     * Based on the exp table in docs/student-exp.md
+     * Based on the shared level curve (docs/student-exp.md)
      */
     private static int calculateLevelFromExp(int totalExp) {
-        // Level thresholds from student-exp.md
-        int[] expThresholds = {
-            0,     // Level 1
-            200,   // Level 2
-            500,   // Level 3
-            1500,  // Level 4
-            3000,  5000,  7000,  9000,  11000, 13000,  // Levels 5-10
-            15000, 17000, 19000, 21000, 23000,          // Levels 11-15
-            25000, 27000, 29000, 31000, 33000,          // Levels 16-20
-            35000, 37000, 39000, 41000, 43000,          // Levels 21-25
-            45000, 47000, 49000, 51000, 53000,          // Levels 26-30
-            55000, 57000, 59000, 61000, 63000, 65000    // Levels 31-36
-        };
-
-        for (int i = expThresholds.length - 1; i >= 0; i--) {
-            if (totalExp >= expThresholds[i]) {
-                return i + 1; // Level is index + 1
-            }
-        }
-        return 1; // Default to level 1
+        return LevelCurve.getDefault().levelFor(totalExp);
     }
 
     /**
      * Get experience needed for next level.
-     * Returns -1 if at max level (36)
+     * Returns -1 if at max level
      */
     public int getExpForNextLevel() {
-        if (level >= 36) {
-            return -1; // Max level reached
-        }
-
-        int[] expThresholds = {
-            0,     // Level 1
-            200,   // Level 2
-            500,   // Level 3
-            1500,  // Level 4
-            3000,  5000,  7000,  9000,  11000, 13000,  // Levels 5-10
-            15000, 17000, 19000, 21000, 23000,          // Levels 11-15
-            25000, 27000, 29000, 31000, 33000,          // Levels 16-20
-            35000, 37000, 39000, 41000, 43000,          // Levels 21-25
-            45000, 47000, 49000, 51000, 53000,          // Levels 26-30
-            55000, 57000, 59000, 61000, 63000, 65000    // Levels 31-36
-        };
-
-        return expThresholds[level] - exp;
+        return LevelCurve.getDefault().expToNextLevel(level, exp);
     }
 
     /**
@@ -378,29 +392,7 @@ public class User {
      * Returns 100 if at max level.
      */
     public int getExpProgressPercentage() {
-        if (level >= 36) {
-            return 100; // Max level
-        }
-
-        int[] expThresholds = {
-            0,     // Level 1
-            200,   // Level 2
-            500,   // Level 3
-            1500,  // Level 4
-            3000,  5000,  7000,  9000,  11000, 13000,  // Levels 5-10
-            15000, 17000, 19000, 21000, 23000,          // Levels 11-15
-            25000, 27000, 29000, 31000, 33000,          // Levels 16-20
-            35000, 37000, 39000, 41000, 43000,          // Levels 21-25
-            45000, 47000, 49000, 51000, 53000,          // Levels 26-30
-            55000, 57000, 59000, 61000, 63000, 65000    // Levels 31-36
-        };
-
-        int currentLevelExp = expThresholds[level - 1];
-        int nextLevelExp = expThresholds[level];
-        int expInCurrentLevel = exp - currentLevelExp;
-        int expNeededForLevel = nextLevelExp - currentLevelExp;
-
-        return (int) ((expInCurrentLevel * 100.0) / expNeededForLevel);
+        return (int) LevelCurve.getDefault().progressPercentage(level, exp);
     }
 
     @Override
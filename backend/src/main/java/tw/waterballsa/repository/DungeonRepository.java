@@ -34,6 +34,14 @@ public interface DungeonRepository extends JpaRepository<Dungeon, Long> {
     @Query("SELECT d FROM Dungeon d LEFT JOIN FETCH d.videos WHERE d.dungeonId = :dungeonId")
     Optional<Dungeon> findDungeonWithVideos(@Param("dungeonId") Long dungeonId);
 
+    /**
+     * Find all dungeons of a course with their videos eagerly loaded.
+     * Used together with CourseRepository.findPublishedCourseWithDungeons so the whole
+     * course -> dungeons -> videos tree is loaded in two queries.
+     */
+    @Query("SELECT DISTINCT d FROM Dungeon d LEFT JOIN FETCH d.videos WHERE d.course.courseId = :courseId")
+    List<Dungeon> findByCourseIdWithVideos(@Param("courseId") Long courseId);
+
     /**
      * Count total dungeons in a course.
      */
@@ -1,10 +1,13 @@
 package tw.waterballsa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tw.waterballsa.model.OAuthProviderLink;
 import tw.waterballsa.model.OAuthProviderLink.ProviderType;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +42,17 @@ public interface OAuthProviderLinkRepository extends JpaRepository<OAuthProvider
      */
     List<OAuthProviderLink> findByUser_UserId(Long userId);
 
+    /**
+     * Find the provider types linked to a batch of users with one IN query.
+     * Only the user ID and provider type are selected, so no provider data is loaded.
+     *
+     * @param userIds the IDs of the users
+     * @return one row per link of any of the users
+     */
+    @Query("SELECT l.user.userId AS userId, l.providerType AS providerType "
+            + "FROM OAuthProviderLink l WHERE l.user.userId IN :userIds")
+    List<ProviderTypeView> findProviderTypesByUserIds(@Param("userIds") Collection<Long> userIds);
+
     /**
      * Find OAuth provider links by provider email.
      * This method is used for account merging - when a user logs in with a different provider
@@ -57,4 +71,14 @@ public interface OAuthProviderLinkRepository extends JpaRepository<OAuthProvider
      * @return true if the provider link exists, false otherwise
      */
     boolean existsByProviderTypeAndProviderUserId(ProviderType providerType, String providerUserId);
+
+    /**
+     * Projection of a user's linked provider type.
+     */
+    interface ProviderTypeView {
+
+        Long getUserId();
+
+        ProviderType getProviderType();
+    }
 }
@@ -1,11 +1,16 @@
 package tw.waterballsa.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tw.waterballsa.model.Order;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,25 +23,79 @@ import java.util.Optional;
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     /**
-     * Find all orders for a specific user, ordered by creation date (newest first).
+     * Find one page of a user's order IDs, newest first, before a keyset position.
+     * First step of paginated history; items are fetched for just these IDs.
      */
-    @Query("SELECT o FROM Order o WHERE o.user.userId = :userId ORDER BY o.createdAt DESC")
-    List<Order> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
+    @Query("SELECT o.orderId FROM Order o WHERE o.user.userId = :userId AND o.orderId < :beforeOrderId "
+            + "ORDER BY o.orderId DESC")
+    List<Long> findOrderIdsByUserIdBefore(@Param("userId") Long userId,
+                                          @Param("beforeOrderId") Long beforeOrderId,
+                                          Pageable pageable);
 
     /**
-     * Find a specific order for a user.
+     * Find orders by ID with their items and courses in one statement.
      */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.course "
+            + "WHERE o.orderId IN :orderIds ORDER BY o.orderId DESC")
+    List<Order> findWithItemsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Find and lock a specific order for a user (SELECT ... FOR UPDATE).
+     * Serializes a user's cancel with a concurrent payment result for the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT o FROM Order o WHERE o.orderId = :orderId AND o.user.userId = :userId")
-    Optional<Order> findByOrderIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
+    Optional<Order> findByOrderIdAndUserIdForUpdate(@Param("orderId") Long orderId, @Param("userId") Long userId);
+
+    /**
+     * Find and lock an order (SELECT ... FOR UPDATE) to apply a payment result.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") Long orderId);
+
+    /**
+     * Find the IDs of a user's pending orders containing a course, newest first.
+     */
+    @Query("SELECT o.orderId FROM Order o JOIN o.orderItems i "
+            + "WHERE o.user.userId = :userId AND i.course.courseId = :courseId AND o.paymentStatus = 'PENDING' "
+            + "ORDER BY o.orderId DESC")
+    List<Long> findPendingOrderIdsByUserIdAndCourseId(@Param("userId") Long userId,
+                                                      @Param("courseId") Long courseId);
 
     /**
-     * Find all paid orders for a user.
+     * Find pending orders created before a cutoff, oldest first (payment status polling).
      */
-    @Query("SELECT o FROM Order o WHERE o.user.userId = :userId AND o.paymentStatus = 'PAID' ORDER BY o.createdAt DESC")
-    List<Order> findPaidOrdersByUserId(@Param("userId") Long userId);
+    @Query("SELECT o FROM Order o WHERE o.paymentStatus = 'PENDING' AND o.createdAt < :cutoff "
+            + "ORDER BY o.orderId ASC")
+    List<Order> findPendingCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Find a specific order for a user with its items and courses in one statement.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.course "
+            + "WHERE o.orderId = :orderId AND o.user.userId = :userId")
+    Optional<Order> findWithItemsByOrderIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
+
+    /**
+     * Find all paid orders for a user with their items and courses in one statement.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.course "
+            + "WHERE o.user.userId = :userId AND o.paymentStatus = 'PAID' ORDER BY o.createdAt DESC")
+    List<Order> findPaidOrdersWithItemsByUserId(@Param("userId") Long userId);
 
     /**
      * Count total orders for a user.
      */
     long countByUser_UserId(Long userId);
+
+    /**
+     * Serialize purchases of the same course by the same user until the current transaction ends.
+     * Takes a transaction-scoped PostgreSQL advisory lock on the given key.
+     *
+     * @param lockKey key derived from (userId, courseId)
+     * @return always 1
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:lockKey)) AS purchase_lock", nativeQuery = true)
+    Integer lockPurchase(@Param("lockKey") long lockKey);
 }
@@ -0,0 +1,46 @@
+package tw.waterballsa.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tw.waterballsa.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for OutboxEvent entity operations.
+ *
+ * @author Water Ball SA
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lock the oldest unpublished events for relaying.
+     * Rows locked by another node's relay are skipped, so relays on several nodes
+     * work on disjoint batches. Locks are held until the calling transaction ends.
+     *
+     * @param maxAttempts events with this many failed attempts or more are not relayed again
+     * @param limit maximum number of events to lock
+     * @return locked events in insertion order
+     */
+    @Query(value = "SELECT * FROM outbox_events "
+            + "WHERE published_at IS NULL AND attempts < :maxAttempts "
+            + "ORDER BY event_id "
+            + "LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockUnpublishedBatch(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    /**
+     * Delete events published before a cutoff.
+     *
+     * @param cutoff events published before this time are removed
+     * @return number of deleted events
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,39 @@
+package tw.waterballsa.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tw.waterballsa.model.PurchaseIdempotencyKey;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for PurchaseIdempotencyKey entity operations.
+ *
+ * @author Water Ball SA
+ */
+@Repository
+public interface PurchaseIdempotencyKeyRepository extends JpaRepository<PurchaseIdempotencyKey, Long> {
+
+    /**
+     * Find the stored purchase for a user's idempotency key.
+     *
+     * @param userId the user ID
+     * @param idempotencyKey the client-supplied key
+     * @return Optional containing the stored purchase if the key was used before
+     */
+    Optional<PurchaseIdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    /**
+     * Delete keys created before a cutoff.
+     *
+     * @param cutoff keys created before this time are removed
+     * @return number of deleted keys
+     */
+    @Modifying
+    @Query("DELETE FROM PurchaseIdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -8,6 +8,7 @@ import tw.waterballsa.model.UserCourseOwnership;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository for UserCourseOwnership entity operations.
@@ -33,6 +34,12 @@ public interface UserCourseOwnershipRepository extends JpaRepository<UserCourseO
     @Query("SELECT o FROM UserCourseOwnership o WHERE o.user.userId = :userId ORDER BY o.purchasedAt DESC")
     List<UserCourseOwnership> findByUserIdOrderByPurchasedAtDesc(@Param("userId") Long userId);
 
+    /**
+     * Find the IDs of all courses owned by a user.
+     */
+    @Query("SELECT o.course.courseId FROM UserCourseOwnership o WHERE o.user.userId = :userId")
+    Set<Long> findCourseIdsByUserId(@Param("userId") Long userId);
+
     /**
      * Find all users who own a specific course.
      */
@@ -1,10 +1,15 @@
 package tw.waterballsa.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tw.waterballsa.model.User;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for User entity.
@@ -35,4 +40,62 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if a user with this email hash exists, false otherwise
      */
     boolean existsByEmailHash(String emailHash);
+
+    /**
+     * Stream the exp of every user with exp, e.g. to rebuild the leaderboard.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of exp projections
+     */
+    @Query("SELECT u.userId AS userId, u.exp AS exp FROM User u WHERE u.exp > 0")
+    Stream<UserExpView> streamAllWithExp();
+
+    /**
+     * Keyset batch of users after a given ID, in ascending ID order.
+     * Seeks on the primary key, so every batch costs the same however deep the walk is.
+     *
+     * @param userId exclusive lower bound (0 to start from the beginning)
+     * @param pageable batch size (page number must be 0)
+     * @return next batch of users
+     */
+    List<User> findByUserIdGreaterThanOrderByUserIdAsc(Long userId, Pageable pageable);
+
+    /**
+     * Keyset batch of users before a given ID, in descending ID order (newest first).
+     *
+     * @param userId exclusive upper bound (Long.MAX_VALUE for the first page)
+     * @param pageable page size (page number must be 0)
+     * @return next page of users
+     */
+    List<User> findByUserIdLessThanOrderByUserIdDesc(Long userId, Pageable pageable);
+
+    /**
+     * Planner estimate of the users row count from pg_class.reltuples.
+     * Constant time, unlike COUNT(*); negative if the table was never analyzed.
+     *
+     * @return estimated number of users
+     */
+    @Query(value = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'users'::regclass", nativeQuery = true)
+    long estimateCount();
+
+    /**
+     * Find users whose nickname starts with a prefix, case-insensitively.
+     * Served by the idx_user_nickname_lower_prefix expression index; no encrypted column is read.
+     *
+     * @param prefix lower-case prefix with LIKE wildcards backslash-escaped, followed by '%'
+     * @param pageable result limit (page number must be 0)
+     * @return matching users ordered by nickname
+     */
+    @Query("SELECT u FROM User u WHERE LOWER(u.nickname) LIKE :prefix ESCAPE '\\' ORDER BY LOWER(u.nickname)")
+    List<User> findByNicknamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    /**
+     * Projection of a user's total exp.
+     */
+    interface UserExpView {
+
+        Long getUserId();
+
+        Integer getExp();
+    }
 }
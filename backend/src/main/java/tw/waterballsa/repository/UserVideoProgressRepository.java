@@ -16,7 +16,8 @@ import java.util.Optional;
  * @author Water Ball SA
  */
 @Repository
-public interface UserVideoProgressRepository extends JpaRepository<UserVideoProgress, Long> {
+public interface UserVideoProgressRepository extends JpaRepository<UserVideoProgress, Long>,
+        UserVideoProgressRepositoryCustom {
 
     /**
      * Find progress by user ID and video ID.
@@ -0,0 +1,63 @@
+package tw.waterballsa.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Custom repository operations for UserVideoProgress that bypass the JPA load-then-save cycle.
+ *
+ * @author Water Ball SA
+ */
+public interface UserVideoProgressRepositoryCustom {
+
+    /**
+     * Insert or update progress rows keyed on (user_id, video_id) in one JDBC batch.
+     * Uses INSERT ... ON CONFLICT, so no SELECT is needed and concurrent heartbeats cannot
+     * race on the unique_user_video_progress constraint. A row never overwrites newer progress.
+     *
+     * @param rows progress rows to write
+     * @return number of rows written
+     */
+    int upsertAll(List<ProgressRow> rows);
+
+    /**
+     * Plain progress row for bulk upsert.
+     */
+    class ProgressRow {
+        private final Long userId;
+        private final Long videoId;
+        private final int lastPositionSeconds;
+        private final BigDecimal watchPercentage;
+        private final LocalDateTime updatedAt;
+
+        public ProgressRow(Long userId, Long videoId, int lastPositionSeconds,
+                           BigDecimal watchPercentage, LocalDateTime updatedAt) {
+            this.userId = userId;
+            this.videoId = videoId;
+            this.lastPositionSeconds = lastPositionSeconds;
+            this.watchPercentage = watchPercentage;
+            this.updatedAt = updatedAt;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Long getVideoId() {
+            return videoId;
+        }
+
+        public int getLastPositionSeconds() {
+            return lastPositionSeconds;
+        }
+
+        public BigDecimal getWatchPercentage() {
+            return watchPercentage;
+        }
+
+        public LocalDateTime getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+}
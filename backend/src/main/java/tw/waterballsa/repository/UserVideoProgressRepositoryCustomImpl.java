@@ -0,0 +1,48 @@
+package tw.waterballsa.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link UserVideoProgressRepositoryCustom}.
+ *
+ * @author Water Ball SA
+ */
+public class UserVideoProgressRepositoryCustomImpl implements UserVideoProgressRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO user_video_progress (user_id, video_id, watch_percentage, last_position_seconds, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT ON CONSTRAINT unique_user_video_progress DO UPDATE SET "
+            + "watch_percentage = EXCLUDED.watch_percentage, "
+            + "last_position_seconds = EXCLUDED.last_position_seconds, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "WHERE user_video_progress.updated_at <= EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserVideoProgressRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public int upsertAll(List<ProgressRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getUserId());
+            ps.setLong(2, row.getVideoId());
+            ps.setBigDecimal(3, row.getWatchPercentage());
+            ps.setInt(4, row.getLastPositionSeconds());
+            ps.setTimestamp(5, Timestamp.valueOf(row.getUpdatedAt()));
+        });
+
+        return rows.size();
+    }
+}
@@ -1,10 +1,14 @@
 package tw.waterballsa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tw.waterballsa.model.VideoCompletion;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for VideoCompletion entity operations.
@@ -14,7 +18,8 @@ import java.util.Optional;
  * @author Water Ball SA
  */
 @Repository
-public interface VideoCompletionRepository extends JpaRepository<VideoCompletion, Long> {
+public interface VideoCompletionRepository
+        extends JpaRepository<VideoCompletion, Long>, VideoCompletionRepositoryCustom {
 
     /**
      * Check if a user has already completed a specific video.
@@ -35,4 +40,41 @@ public interface VideoCompletionRepository extends JpaRepository<VideoCompletion
      * @return Optional containing VideoCompletion if found, empty otherwise
      */
     Optional<VideoCompletion> findByUserUserIdAndVideoVideoId(Long userId, Long videoId);
+
+    /**
+     * Find the IDs of all videos in a course that a user has completed.
+     * Lets course detail views resolve completion status for every video with one query.
+     *
+     * @param userId the user ID
+     * @param courseId the course ID
+     * @return set of completed video IDs (empty if none)
+     */
+    @Query("SELECT vc.video.videoId FROM VideoCompletion vc "
+            + "WHERE vc.user.userId = :userId AND vc.video.dungeon.course.courseId = :courseId")
+    Set<Long> findCompletedVideoIdsByUserIdAndCourseId(@Param("userId") Long userId,
+                                                       @Param("courseId") Long courseId);
+
+    /**
+     * Stream the exp each user earned per course, e.g. to rebuild the course leaderboards.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of (courseId, userId, exp) totals
+     */
+    @Query("SELECT vc.video.dungeon.course.courseId AS courseId, vc.user.userId AS userId, "
+            + "SUM(vc.expAwarded) AS exp FROM VideoCompletion vc "
+            + "WHERE vc.expAwarded > 0 "
+            + "GROUP BY vc.video.dungeon.course.courseId, vc.user.userId")
+    Stream<CourseExpView> streamCourseExpTotals();
+
+    /**
+     * Projection of the exp a user earned in one course.
+     */
+    interface CourseExpView {
+
+        Long getCourseId();
+
+        Long getUserId();
+
+        Long getExp();
+    }
 }
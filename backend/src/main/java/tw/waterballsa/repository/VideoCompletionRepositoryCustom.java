@@ -0,0 +1,90 @@
+package tw.waterballsa.repository;
+
+import tw.waterballsa.model.LevelCurve;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Custom video completion operations that bypass the entity lifecycle.
+ *
+ * @author Water Ball SA
+ */
+public interface VideoCompletionRepositoryCustom {
+
+    /**
+     * Record a completion and award its exp atomically.
+     *
+     * The completion insert ({@code ON CONFLICT DO NOTHING}) and the
+     * {@code exp = exp + ?} update run as one statement, so concurrent completions of the
+     * same video award exp exactly once. If the video was already completed, the existing
+     * completion is read back with a second statement.
+     *
+     * @param userId the user ID
+     * @param videoId the video ID
+     * @return the completion with the user's exp/level afterwards, or empty if the video doesn't exist
+     */
+    Optional<CompletionOutcome> completeAndAwardExp(Long userId, Long videoId);
+
+    /**
+     * Result of {@link #completeAndAwardExp}: the completion row plus the user's exp and level.
+     */
+    class CompletionOutcome {
+        private final Long completionId;
+        private final Long courseId;
+        private final int expAwarded;
+        private final LocalDateTime completedAt;
+        private final boolean alreadyCompleted;
+        private final int exp;
+        private final int level;
+
+        public CompletionOutcome(Long completionId, Long courseId, int expAwarded, LocalDateTime completedAt,
+                                 boolean alreadyCompleted, int exp, int level) {
+            this.completionId = completionId;
+            this.courseId = courseId;
+            this.expAwarded = expAwarded;
+            this.completedAt = completedAt;
+            this.alreadyCompleted = alreadyCompleted;
+            this.exp = exp;
+            this.level = level;
+        }
+
+        public Long getCompletionId() {
+            return completionId;
+        }
+
+        /**
+         * Course of the completed video, or null if the video isn't in a dungeon.
+         */
+        public Long getCourseId() {
+            return courseId;
+        }
+
+        public int getExpAwarded() {
+            return expAwarded;
+        }
+
+        public LocalDateTime getCompletedAt() {
+            return completedAt;
+        }
+
+        public boolean isAlreadyCompleted() {
+            return alreadyCompleted;
+        }
+
+        public int getExp() {
+            return exp;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * Whether this completion pushed the user into a higher level.
+         */
+        public boolean isLeveledUp() {
+            return !alreadyCompleted && level > LevelCurve.getDefault().levelFor(exp - expAwarded);
+        }
+    }
+}
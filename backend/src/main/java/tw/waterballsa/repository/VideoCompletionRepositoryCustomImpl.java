@@ -0,0 +1,81 @@
+package tw.waterballsa.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import tw.waterballsa.model.LevelCurve;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC implementation of {@link VideoCompletionRepositoryCustom}.
+ *
+ * @author Water Ball SA
+ */
+public class VideoCompletionRepositoryCustomImpl implements VideoCompletionRepositoryCustom {
+
+    /**
+     * Level thresholds as a SQL array literal; level = number of thresholds reached.
+     * Built from constants, never from user input.
+     */
+    private static final String THRESHOLDS_SQL = Arrays.stream(LevelCurve.getDefault().getThresholds())
+            .mapToObj(Integer::toString)
+            .collect(Collectors.joining(",", "ARRAY[", "]::int[]"));
+
+    private static final String COMPLETE_SQL =
+            "WITH v AS ("
+            + "  SELECT v.video_id, d.course_id, CASE WHEN v.is_demo THEN 0 ELSE v.exp_reward END AS exp_reward "
+            + "  FROM videos v LEFT JOIN dungeons d ON d.dungeon_id = v.dungeon_id WHERE v.video_id = ?"
+            + "), ins AS ("
+            + "  INSERT INTO video_completions (user_id, video_id, exp_awarded, completed_at) "
+            + "  SELECT ?, v.video_id, v.exp_reward, CURRENT_TIMESTAMP FROM v "
+            + "  ON CONFLICT (user_id, video_id) DO NOTHING "
+            + "  RETURNING completion_id, user_id, exp_awarded, completed_at"
+            + "), upd AS ("
+            + "  UPDATE users SET exp = users.exp + ins.exp_awarded, "
+            + "    level = (SELECT count(*)::int FROM unnest(" + THRESHOLDS_SQL + ") AS t(threshold) "
+            + "             WHERE t.threshold <= users.exp + ins.exp_awarded), "
+            + "    updated_at = CURRENT_TIMESTAMP "
+            + "  FROM ins WHERE users.user_id = ins.user_id "
+            + "  RETURNING users.exp, users.level"
+            + ") "
+            + "SELECT ins.completion_id, v.course_id, ins.exp_awarded, ins.completed_at, upd.exp, upd.level, "
+            + "false AS already_completed "
+            + "FROM ins CROSS JOIN upd CROSS JOIN v";
+
+    private static final String EXISTING_SQL =
+            "SELECT vc.completion_id, d.course_id, vc.exp_awarded, vc.completed_at, u.exp, u.level, "
+            + "true AS already_completed "
+            + "FROM video_completions vc JOIN users u ON u.user_id = vc.user_id "
+            + "JOIN videos v ON v.video_id = vc.video_id LEFT JOIN dungeons d ON d.dungeon_id = v.dungeon_id "
+            + "WHERE vc.user_id = ? AND vc.video_id = ?";
+
+    private static final RowMapper<CompletionOutcome> OUTCOME_MAPPER = (rs, rowNum) -> new CompletionOutcome(
+            rs.getLong("completion_id"),
+            rs.getObject("course_id", Long.class),
+            rs.getInt("exp_awarded"),
+            rs.getTimestamp("completed_at").toLocalDateTime(),
+            rs.getBoolean("already_completed"),
+            rs.getInt("exp"),
+            rs.getInt("level")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VideoCompletionRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<CompletionOutcome> completeAndAwardExp(Long userId, Long videoId) {
+        List<CompletionOutcome> created = jdbcTemplate.query(COMPLETE_SQL, OUTCOME_MAPPER, videoId, userId);
+        if (!created.isEmpty()) {
+            return Optional.of(created.get(0));
+        }
+
+        // Conflict (already completed) or unknown video
+        return jdbcTemplate.query(EXISTING_SQL, OUTCOME_MAPPER, userId, videoId).stream().findFirst();
+    }
+}
@@ -1,5 +1,7 @@
 package tw.waterballsa.security;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,11 +11,13 @@ import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
-import java.util.Base64;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * JPA AttributeConverter for encrypting PII fields using AES-256-GCM.
@@ -21,6 +25,10 @@ import java.util.Base64;
  *
  * Encryption format: [12-byte IV][encrypted data][16-byte GCM tag]
  *
+ * The static {@link #encrypt(String)} / {@link #decrypt(byte[])} helpers let entities keep ciphertext
+ * and decrypt only when a value is actually read (see User).
+ * Both are timed as app.encryption{operation=encrypt|decrypt}.
+ *
  * @author Water Ball SA
  */
 @Component
@@ -31,15 +39,45 @@ public class EncryptionConverter implements AttributeConverter<String, byte[]> {
     private static final int GCM_TAG_LENGTH = 128; // bits
     private static final int IV_LENGTH = 12; // bytes (96 bits recommended for GCM)
 
-    private static String encryptionKey;
+    /**
+     * AES-256 key derived once when the configured key is injected.
+     */
+    private static volatile SecretKey secretKey;
+
+    /**
+     * Idle Cipher instances, re-initialized per operation.
+     * Cipher is not thread-safe, so each operation borrows one exclusively. A shared pool rather than a
+     * ThreadLocal: with virtual threads every request runs on a new thread, and a per-thread cipher
+     * would be created for each of them and never reused. At most {@link #MAX_POOLED_CIPHERS} are kept;
+     * a borrower finding the pool empty creates a new one.
+     */
+    private static final ConcurrentLinkedQueue<Cipher> CIPHERS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED_CIPHERS = new AtomicInteger();
+    private static final int MAX_POOLED_CIPHERS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
 
     /**
-     * Inject encryption key from application configuration.
+     * IV source shared by all threads (SecureRandom is thread-safe), seeded once.
+     */
+    private static final SecureRandom IV_SOURCE = new SecureRandom();
+
+    /**
+     * Registered on the global registry: the static helpers run outside any bean
+     * (Spring Boot adds its registry, and its histogram settings, to the global one).
+     */
+    private static final Timer ENCRYPT_TIMER = Timer.builder("app.encryption")
+            .tag("operation", "encrypt")
+            .register(Metrics.globalRegistry);
+    private static final Timer DECRYPT_TIMER = Timer.builder("app.encryption")
+            .tag("operation", "decrypt")
+            .register(Metrics.globalRegistry);
+
+    /**
+     * Inject encryption key from application configuration and derive the AES key once.
      * The key is expected to be a base64-encoded 256-bit (32-byte) key.
      */
     @Value("${app.encryption.key}")
     public void setEncryptionKey(String key) {
-        EncryptionConverter.encryptionKey = key;
+        EncryptionConverter.secretKey = (key == null || key.isEmpty()) ? null : deriveSecretKey(key);
     }
 
     /**
@@ -50,86 +88,145 @@ public class EncryptionConverter implements AttributeConverter<String, byte[]> {
      */
     @Override
     public byte[] convertToDatabaseColumn(String attribute) {
+        return encrypt(attribute);
+    }
+
+    /**
+     * Convert encrypted byte array from database to plaintext String.
+     *
+     * @param dbData encrypted byte array from database (IV + ciphertext + GCM tag)
+     * @return decrypted plaintext string, or null if input is null
+     */
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+        return decrypt(dbData);
+    }
+
+    /**
+     * Encrypt a plaintext string.
+     *
+     * @param attribute the plaintext string to encrypt
+     * @return encrypted byte array (IV + ciphertext + GCM tag), or null if input is null or empty
+     */
+    public static byte[] encrypt(String attribute) {
         if (attribute == null || attribute.isEmpty()) {
             return null;
         }
 
+        long start = System.nanoTime();
         try {
             SecretKey key = getSecretKey();
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
 
             // Generate random IV for each encryption (GCM requires unique IV per encryption)
             byte[] iv = new byte[IV_LENGTH];
-            SecureRandom random = new SecureRandom();
-            random.nextBytes(iv);
+            IV_SOURCE.nextBytes(iv);
 
             GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
+            byte[] plaintext = attribute.getBytes(StandardCharsets.UTF_8);
 
-            byte[] encryptedData = cipher.doFinal(attribute.getBytes(StandardCharsets.UTF_8));
+            Cipher cipher = borrowCipher();
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
 
-            // Combine IV and encrypted data: [IV][ciphertext+tag]
-            ByteBuffer byteBuffer = ByteBuffer.allocate(IV_LENGTH + encryptedData.length);
-            byteBuffer.put(iv);
-            byteBuffer.put(encryptedData);
+                // Write [IV][ciphertext+tag] into a single buffer
+                byte[] output = new byte[IV_LENGTH + cipher.getOutputSize(plaintext.length)];
+                System.arraycopy(iv, 0, output, 0, IV_LENGTH);
+                cipher.doFinal(plaintext, 0, plaintext.length, output, IV_LENGTH);
 
-            return byteBuffer.array();
+                return output;
+            } finally {
+                returnCipher(cipher);
+            }
 
         } catch (Exception e) {
             throw new RuntimeException("Error encrypting data", e);
+        } finally {
+            ENCRYPT_TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     /**
-     * Convert encrypted byte array from database to plaintext String.
+     * Decrypt an encrypted byte array.
      *
-     * @param dbData encrypted byte array from database (IV + ciphertext + GCM tag)
-     * @return decrypted plaintext string, or null if input is null
+     * @param dbData encrypted byte array (IV + ciphertext + GCM tag)
+     * @return decrypted plaintext string, or null if input is null or empty
      */
-    @Override
-    public String convertToEntityAttribute(byte[] dbData) {
+    public static String decrypt(byte[] dbData) {
         if (dbData == null || dbData.length == 0) {
             return null;
         }
 
+        long start = System.nanoTime();
         try {
             SecretKey key = getSecretKey();
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
 
-            // Extract IV and encrypted data
-            ByteBuffer byteBuffer = ByteBuffer.wrap(dbData);
-            byte[] iv = new byte[IV_LENGTH];
-            byteBuffer.get(iv);
-
-            byte[] encryptedData = new byte[byteBuffer.remaining()];
-            byteBuffer.get(encryptedData);
-
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
+            // IV and ciphertext are read in place, without copying
+            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, dbData, 0, IV_LENGTH);
 
-            byte[] decryptedData = cipher.doFinal(encryptedData);
+            byte[] decryptedData;
+            Cipher cipher = borrowCipher();
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
+                decryptedData = cipher.doFinal(dbData, IV_LENGTH, dbData.length - IV_LENGTH);
+            } finally {
+                returnCipher(cipher);
+            }
 
             return new String(decryptedData, StandardCharsets.UTF_8);
 
         } catch (Exception e) {
             throw new RuntimeException("Error decrypting data", e);
+        } finally {
+            DECRYPT_TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     /**
-     * Derive AES-256 secret key from the configured encryption key.
-     * Uses SHA-256 to ensure the key is exactly 256 bits.
+     * Take an idle cipher from the pool, or create one if none is idle.
+     */
+    private static Cipher borrowCipher() throws GeneralSecurityException {
+        Cipher cipher = CIPHERS.poll();
+        if (cipher == null) {
+            return Cipher.getInstance(ALGORITHM);
+        }
+        POOLED_CIPHERS.decrementAndGet();
+        return cipher;
+    }
+
+    /**
+     * Put a cipher back for reuse; dropped if the pool is full.
+     * Every operation re-initializes the cipher, so a failed one can be reused too.
+     */
+    private static void returnCipher(Cipher cipher) {
+        if (POOLED_CIPHERS.incrementAndGet() <= MAX_POOLED_CIPHERS) {
+            CIPHERS.offer(cipher);
+        } else {
+            POOLED_CIPHERS.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get the AES-256 key derived at startup.
      *
      * @return SecretKey for AES-256 encryption
      */
-    private SecretKey getSecretKey() {
-        try {
-            if (encryptionKey == null || encryptionKey.isEmpty()) {
-                throw new IllegalStateException(
-                    "Encryption key not configured. Set app.encryption.key in application.yml or APP_ENCRYPTION_KEY environment variable."
-                );
-            }
+    private static SecretKey getSecretKey() {
+        SecretKey key = secretKey;
+        if (key == null) {
+            throw new IllegalStateException(
+                "Encryption key not configured. Set app.encryption.key in application.yml"
+                    + " or APP_ENCRYPTION_KEY environment variable."
+            );
+        }
+        return key;
+    }
 
+    /**
+     * Derive AES-256 secret key from the configured encryption key.
+     * Uses SHA-256 to ensure the key is exactly 256 bits.
+     */
+    private static SecretKey deriveSecretKey(String encryptionKey) {
+        try {
             // Hash the key to ensure it's exactly 256 bits (32 bytes)
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] keyBytes = digest.digest(encryptionKey.getBytes(StandardCharsets.UTF_8));
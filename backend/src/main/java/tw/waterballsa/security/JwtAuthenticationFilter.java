@@ -25,8 +25,8 @@ import java.util.List;
  *
  * Flow:
  * 1. Extract JWT token from Authorization header
- * 2. Validate token using JwtTokenProvider
- * 3. Extract user ID from token
+ * 2. Resolve verified claims from VerifiedTokenCache (single parse on a miss)
+ * 3. Accept access tokens only
  * 4. Set authentication in SecurityContext
  *
  * Runs once per request before Spring Security filter chain.
@@ -37,7 +37,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     @Autowired
-    private JwtTokenProvider jwtTokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
 
     @Override
     protected void doFilterInternal(
@@ -50,14 +50,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                // Validate token
-                if (jwtTokenProvider.validateToken(jwt)) {
+                // Verified claims from cache, or verify signature once on a miss
+                JwtPrincipal principal = verifiedTokenCache.resolve(jwt);
+                if (principal != null) {
                     // Check token type (only accept access tokens for API calls)
-                    String tokenType = jwtTokenProvider.getTokenType(jwt);
-                    if ("access".equals(tokenType)) {
-                        // Extract user ID and role from token
-                        Long userId = jwtTokenProvider.getUserIdFromToken(jwt);
-                        String role = jwtTokenProvider.getRoleFromToken(jwt);
+                    if (principal.isAccessToken()) {
+                        Long userId = principal.getUserId();
+                        String role = principal.getRole();
 
                         // Create authority list with role
                         List<GrantedAuthority> authorities;
@@ -89,7 +88,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                         logger.debug("Set authentication for user ID: {} with role: {}", userId, role);
                     } else {
-                        logger.warn("Invalid token type: {}. Expected 'access'", tokenType);
+                        logger.warn("Invalid token type: {}. Expected 'access'", principal.getType());
                     }
                 } else {
                     logger.warn("JWT validation failed");
@@ -0,0 +1,55 @@
+package tw.waterballsa.security;
+
+import java.time.Instant;
+
+/**
+ * Verified claims of a JWT, extracted in a single parse.
+ *
+ * @author Water Ball SA
+ */
+public final class JwtPrincipal {
+
+    private final Long userId;
+    private final String role;
+    private final String type;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public JwtPrincipal(Long userId, String role, String type, Instant issuedAt, Instant expiresAt) {
+        this.userId = userId;
+        this.role = role;
+        this.type = type;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return user role (e.g., "STUDENT", "TEACHER", "ADMIN"), or null if not present
+     */
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * @return "access" or "refresh"
+     */
+    public String getType() {
+        return type;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isAccessToken() {
+        return "access".equals(type);
+    }
+}
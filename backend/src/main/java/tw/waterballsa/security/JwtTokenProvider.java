@@ -2,19 +2,25 @@ package tw.waterballsa.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Token Provider for generating and validating JWT tokens.
@@ -28,6 +34,10 @@ import java.util.Date;
  * - iat (issued at): Token creation timestamp
  * - exp (expiration): Token expiry timestamp
  * - type: "access" or "refresh"
+ *
+ * The signing key and parser are built once at startup; {@link #parseToken(String)} verifies the
+ * signature once and returns every claim needed for authentication.
+ * Verifications are timed as app.jwt.verify{result=valid|invalid}.
  */
 @Component
 public class JwtTokenProvider {
@@ -43,6 +53,27 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-token-expiration}")
     private long refreshTokenExpiration; // 7 days in milliseconds
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Timer validTimer;
+    private Timer invalidTimer;
+
+    /**
+     * Build signing key, parser and timers once (all immutable and thread-safe).
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.validTimer = meterRegistry.timer("app.jwt.verify", "result", "valid");
+        this.invalidTimer = meterRegistry.timer("app.jwt.verify", "result", "invalid");
+    }
+
     /**
      * Generate access token for authenticated user.
      *
@@ -81,6 +112,43 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Verify a token and extract its claims in a single parse.
+     *
+     * @param token JWT token
+     * @return verified principal, or null if the token is invalid or expired
+     */
+    public JwtPrincipal parseToken(String token) {
+        long start = System.nanoTime();
+        JwtPrincipal principal = verify(token);
+        (principal != null ? validTimer : invalidTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return principal;
+    }
+
+    private JwtPrincipal verify(String token) {
+        try {
+            Claims claims = getClaims(token);
+            return new JwtPrincipal(
+                    Long.parseLong(claims.getSubject()),
+                    claims.get("role", String.class),
+                    claims.get("type", String.class),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration().toInstant()
+            );
+        } catch (SignatureException ex) {
+            logger.error("Invalid JWT signature: {}", ex.getMessage());
+        } catch (MalformedJwtException ex) {
+            logger.error("Invalid JWT token: {}", ex.getMessage());
+        } catch (ExpiredJwtException ex) {
+            logger.error("Expired JWT token: {}", ex.getMessage());
+        } catch (UnsupportedJwtException ex) {
+            logger.error("Unsupported JWT token: {}", ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            logger.error("JWT claims string is empty: {}", ex.getMessage());
+        }
+        return null;
+    }
+
     /**
      * Extract user ID from JWT token.
      *
@@ -111,10 +179,7 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            parser.parseSignedClaims(token);
             return true;
         } catch (SignatureException ex) {
             logger.error("Invalid JWT signature: {}", ex.getMessage());
@@ -160,18 +225,13 @@ public class JwtTokenProvider {
      * Extract all claims from token.
      */
     private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
-     * Get signing key from JWT secret.
+     * Get signing key built from JWT secret.
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 }
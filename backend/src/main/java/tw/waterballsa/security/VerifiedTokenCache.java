@@ -0,0 +1,210 @@
+package tw.waterballsa.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache from bearer token digest to verified claims.
+ *
+ * The frontend sends the same access token dozens of times per page, so repeat requests skip HMAC
+ * verification and JSON decoding. Each entry expires at the token's own exp claim.
+ *
+ * Revocation (logout, role change) records a per-user cut-off: tokens issued before it are rejected
+ * whether or not they are cached. JWT iat has second precision, so the cut-off is truncated to the
+ * second: a token issued right after a logout or role change stays valid, at the price of accepting
+ * one issued earlier in that same second. Cut-offs live for one access token lifetime, after which
+ * every token they could match has expired anyway. Revocations are broadcast on a Redis channel, so
+ * every node applies the same cut-off.
+ *
+ * Hit/miss stats are published to Micrometer as cache.gets{cache=jwt.verified}.
+ *
+ * @author Water Ball SA
+ */
+@Component
+public class VerifiedTokenCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    static final String REVOCATION_CHANNEL = "token:revoke";
+
+    /**
+     * Identifies this JVM so it can ignore its own revocation messages.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, JwtPrincipal> verified;
+    private final Cache<Long, Instant> revokedBefore;
+
+    /**
+     * Digests of the cached tokens of each user, so revocation drops them without scanning the cache.
+     */
+    private final ConcurrentMap<Long, Set<String>> digestsByUser = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(JwtTokenProvider jwtTokenProvider,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.jwt.verified-cache-size:50000}") long maxSize,
+                              @Value("${app.jwt.access-token-expiration}") long accessTokenExpiration) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.redisTemplate = redisTemplate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .removalListener((String digest, JwtPrincipal principal, RemovalCause cause) -> {
+                    // A replaced entry keeps its digest
+                    if (digest != null && principal != null && cause != RemovalCause.REPLACED) {
+                        unindex(principal.getUserId(), digest);
+                    }
+                })
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtPrincipal value, long currentTime) {
+                        long remaining = Duration.between(Instant.now(), value.getExpiresAt()).toNanos();
+                        return Math.max(remaining, 0);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtPrincipal value, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtPrincipal value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.revokedBefore = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(accessTokenExpiration))
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified");
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATION_CHANNEL));
+    }
+
+    /**
+     * Resolve a bearer token to its verified claims, verifying the signature only on a cache miss.
+     *
+     * @param token JWT token
+     * @return verified principal, or null if the token is invalid, expired or revoked
+     */
+    public JwtPrincipal resolve(String token) {
+        String digest = digest(token);
+
+        JwtPrincipal principal = verified.getIfPresent(digest);
+        if (principal == null) {
+            principal = jwtTokenProvider.parseToken(token);
+            if (principal == null) {
+                return null;
+            }
+            // Indexed before caching, so the removal listener always finds the digest
+            digestsByUser.computeIfAbsent(principal.getUserId(), id -> ConcurrentHashMap.newKeySet()).add(digest);
+            verified.put(digest, principal);
+        }
+
+        if (isRevoked(principal)) {
+            logger.debug("Rejected revoked token for user ID: {}", principal.getUserId());
+            return null;
+        }
+
+        return principal;
+    }
+
+    /**
+     * Revoke every token issued to a user before the current second, on every node.
+     *
+     * @param userId the user ID
+     */
+    public void revokeUser(Long userId) {
+        Instant cutOff = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        applyRevocation(userId, cutOff);
+        logger.info("Revoked cached tokens for user ID: {}", userId);
+
+        try {
+            redisTemplate.convertAndSend(REVOCATION_CHANNEL,
+                    nodeId + ":" + userId + ":" + cutOff.getEpochSecond());
+        } catch (Exception e) {
+            // Other nodes keep accepting the user's tokens until they expire
+            logger.warn("Failed to publish token revocation for userId={}", userId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(":");
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+
+        try {
+            applyRevocation(Long.valueOf(parts[1]), Instant.ofEpochSecond(Long.parseLong(parts[2])));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed token revocation message: {}", body);
+        }
+    }
+
+    /**
+     * Record the cut-off (keeping a later one already recorded) and drop the user's cached tokens.
+     */
+    private void applyRevocation(Long userId, Instant cutOff) {
+        revokedBefore.asMap().merge(userId, cutOff, (current, next) -> next.isAfter(current) ? next : current);
+        Set<String> digests = digestsByUser.get(userId);
+        if (digests != null) {
+            verified.invalidateAll(Set.copyOf(digests));
+        }
+    }
+
+    private boolean isRevoked(JwtPrincipal principal) {
+        Instant cutOff = revokedBefore.getIfPresent(principal.getUserId());
+        return cutOff != null
+                && (principal.getIssuedAt() == null || principal.getIssuedAt().isBefore(cutOff));
+    }
+
+    private void unindex(Long userId, String digest) {
+        digestsByUser.computeIfPresent(userId, (id, digests) -> {
+            digests.remove(digest);
+            return digests.isEmpty() ? null : digests;
+        });
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
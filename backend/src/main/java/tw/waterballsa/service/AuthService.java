@@ -1,7 +1,5 @@
 package tw.waterballsa.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -19,7 +17,9 @@ import tw.waterballsa.model.User;
 import tw.waterballsa.repository.OAuthProviderLinkRepository;
 import tw.waterballsa.repository.UserRepository;
 import tw.waterballsa.security.JwtUtil;
+import tw.waterballsa.security.VerifiedTokenCache;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -42,21 +42,27 @@ public class AuthService extends DefaultOAuth2UserService {
     private final UserRepository userRepository;
     private final OAuthProviderLinkRepository oauthProviderLinkRepository;
     private final JwtUtil jwtUtil;
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final SessionCodec sessionCodec;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final SessionNearCache sessionNearCache;
 
     public AuthService(
             UserRepository userRepository,
             OAuthProviderLinkRepository oauthProviderLinkRepository,
             JwtUtil jwtUtil,
-            RedisTemplate<String, String> redisTemplate,
-            ObjectMapper objectMapper
+            RedisTemplate<String, byte[]> redisTemplate,
+            SessionCodec sessionCodec,
+            VerifiedTokenCache verifiedTokenCache,
+            SessionNearCache sessionNearCache
     ) {
         this.userRepository = userRepository;
         this.oauthProviderLinkRepository = oauthProviderLinkRepository;
         this.jwtUtil = jwtUtil;
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+        this.sessionCodec = sessionCodec;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.sessionNearCache = sessionNearCache;
     }
 
     /**
@@ -146,7 +152,7 @@ public class AuthService extends DefaultOAuth2UserService {
         String refreshToken = jwtUtil.generateRefreshToken(user.getUserId());
 
         // Store session in Redis
-        storeSession(user.getUserId(), user);
+        storeSession(user.getUserId(), buildSessionInfoResponse(user));
 
         return new OAuthResult(
                 accessToken,
@@ -164,14 +170,22 @@ public class AuthService extends DefaultOAuth2UserService {
      * @return session info response
      */
     public SessionInfoResponse getSession(Long userId) {
-        // Try to get from Redis cache first
+        // Try the in-process near-cache first
+        SessionInfoResponse nearCached = sessionNearCache.get(userId);
+        if (nearCached != null) {
+            return nearCached;
+        }
+
+        // Then Redis
         String sessionKey = SESSION_KEY_PREFIX + userId;
-        String cachedSession = redisTemplate.opsForValue().get(sessionKey);
+        byte[] cachedSession = redisTemplate.opsForValue().get(sessionKey);
 
         if (cachedSession != null) {
             try {
-                return objectMapper.readValue(cachedSession, SessionInfoResponse.class);
-            } catch (JsonProcessingException e) {
+                SessionInfoResponse session = sessionCodec.decode(cachedSession);
+                sessionNearCache.put(userId, session);
+                return session;
+            } catch (IllegalArgumentException e) {
                 logger.warn("Failed to deserialize cached session for userId={}", userId, e);
             }
         }
@@ -183,7 +197,7 @@ public class AuthService extends DefaultOAuth2UserService {
         SessionInfoResponse response = buildSessionInfoResponse(user);
 
         // Cache in Redis
-        storeSession(userId, user);
+        storeSession(userId, response);
 
         return response;
     }
@@ -218,30 +232,32 @@ public class AuthService extends DefaultOAuth2UserService {
     }
 
     /**
-     * Logout user by invalidating session.
+     * Logout user by invalidating session and revoking issued access tokens.
      *
      * @param userId user ID
      */
     public void logout(Long userId) {
         String sessionKey = SESSION_KEY_PREFIX + userId;
         redisTemplate.delete(sessionKey);
+        sessionNearCache.invalidate(userId);
+        verifiedTokenCache.revokeUser(userId);
         logger.info("User logged out: userId={}", userId);
     }
 
     /**
-     * Store user session in Redis.
+     * Store user session in Redis and refresh the near-cache on every node.
      *
      * @param userId user ID
-     * @param user user object
+     * @param sessionInfo session built from the user
      */
-    private void storeSession(Long userId, User user) {
+    private void storeSession(Long userId, SessionInfoResponse sessionInfo) {
         try {
-            SessionInfoResponse sessionInfo = buildSessionInfoResponse(user);
-            String sessionJson = objectMapper.writeValueAsString(sessionInfo);
+            byte[] sessionBytes = sessionCodec.encode(sessionInfo);
             String sessionKey = SESSION_KEY_PREFIX + userId;
 
-            redisTemplate.opsForValue().set(sessionKey, sessionJson, SESSION_TTL_SECONDS, TimeUnit.SECONDS);
-        } catch (JsonProcessingException e) {
+            redisTemplate.opsForValue().set(sessionKey, sessionBytes, SESSION_TTL_SECONDS, TimeUnit.SECONDS);
+            sessionNearCache.update(userId, sessionInfo);
+        } catch (UncheckedIOException e) {
             logger.error("Failed to store session for userId={}", userId, e);
         }
     }
@@ -264,8 +280,6 @@ public class AuthService extends DefaultOAuth2UserService {
                 user.getEmail(),
                 user.getLevel(),
                 user.getExp(),
-                user.getExpForNextLevel(),
-                user.getExpProgressPercentage(),
                 user.getRole().name(), // Convert UserRole enum to string (e.g., "STUDENT")
                 oauthProviders
         );
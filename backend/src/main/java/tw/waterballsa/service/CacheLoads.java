@@ -0,0 +1,59 @@
+package tw.waterballsa.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Single-flight loads for Caffeine caches whose loader blocks on I/O.
+ *
+ * A synchronous {@code Cache.get(key, loader)} runs the loader inside ConcurrentHashMap.compute,
+ * i.e. while holding a bin monitor. A JDBC query there pins a virtual thread to its carrier
+ * (and blocks every other key in the same bin). Here only an empty future is inserted under the
+ * lock; the calling thread then runs the loader outside of it, within the caller's own transaction
+ * context (no new transaction is started), and concurrent callers for the same key wait on the
+ * future, which parks instead of pinning.
+ *
+ * @author Water Ball SA
+ */
+final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    /**
+     * Get a cached value, loading it on the calling thread on a miss.
+     * Hit/miss stats are recorded as for {@code Cache.get}; a failed load is not cached.
+     *
+     * @param cache the cache
+     * @param key the key
+     * @param loader loads the value (must not return null)
+     * @return the cached or loaded value
+     */
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+
+        if (future == created) {
+            try {
+                V value = loader.apply(key);
+                created.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package tw.waterballsa.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tw.waterballsa.model.Course;
+import tw.waterballsa.repository.CourseRepository;
+import tw.waterballsa.repository.DungeonRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of the published course catalog and course -> dungeon -> video trees.
+ *
+ * Courses only change through admin edits, so entries are kept until the catalog version is bumped
+ * by {@link #evictAll()}. Keys carry the version they were loaded under, which makes entries loaded
+ * concurrently with an admin edit unreachable once the edit commits. The editing node then publishes
+ * on a Redis channel so every other node evicts too; a lost message (or an edit made directly in the
+ * database) is bounded by app.cache.course-catalog.ttl-seconds.
+ *
+ * Cached courses are detached entities with dungeons and videos initialized. Treat them as read-only.
+ * Misses are loaded by the calling thread outside the cache's locks (see {@link CacheLoads}).
+ *
+ * Hit/miss stats are published to Micrometer as cache.gets{cache=course.catalog|course.tree}.
+ *
+ * @author Water Ball SA
+ */
+@Component
+public class CourseCatalogCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseCatalogCache.class);
+
+    static final String EVICTION_CHANNEL = "course-catalog:evict";
+
+    /**
+     * Identifies this JVM so it can ignore its own eviction messages.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CourseRepository courseRepository;
+    private final DungeonRepository dungeonRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AsyncCache<Long, List<Course>> catalog;
+    private final AsyncCache<TreeKey, Optional<Course>> trees;
+
+    public CourseCatalogCache(CourseRepository courseRepository,
+                              DungeonRepository dungeonRepository,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.course-trees.max-size:500}") long maxTrees,
+                              @Value("${app.cache.course-catalog.ttl-seconds:600}") long ttlSeconds) {
+        this.courseRepository = courseRepository;
+        this.dungeonRepository = dungeonRepository;
+        this.redisTemplate = redisTemplate;
+        this.catalog = Caffeine.newBuilder()
+                .maximumSize(4)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        this.trees = Caffeine.newBuilder()
+                .maximumSize(maxTrees)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, catalog, "course.catalog");
+        CaffeineCacheMetrics.monitor(meterRegistry, trees, "course.tree");
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVICTION_CHANNEL));
+    }
+
+    /**
+     * Get all published courses, newest first.
+     */
+    public List<Course> getPublishedCourses() {
+        return CacheLoads.get(catalog, version.get(), v -> Collections.unmodifiableList(
+                courseRepository.findAllPublishedCourses()));
+    }
+
+    /**
+     * Get a published course with its dungeons and videos fully loaded.
+     * Must be called inside a transaction so a miss can initialize the tree.
+     *
+     * @param courseId the course ID
+     * @return the course tree, or empty if no published course has this ID
+     */
+    public Optional<Course> getPublishedCourseTree(Long courseId) {
+        return CacheLoads.get(trees, new TreeKey(version.get(), courseId), key -> loadTree(key.courseId));
+    }
+
+    /**
+     * Bump the catalog version and drop every entry, now and again after the current
+     * transaction commits; other nodes are told to evict once the edit is committed.
+     */
+    public void evictAll() {
+        bumpVersion();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion();
+                    publishEviction();
+                }
+            });
+        } else {
+            publishEviction();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!sender.equals(nodeId)) {
+            bumpVersion();
+        }
+    }
+
+    private void publishEviction() {
+        try {
+            redisTemplate.convertAndSend(EVICTION_CHANNEL, nodeId);
+        } catch (Exception e) {
+            // Other nodes fall back to the cache TTL
+            logger.warn("Failed to publish course catalog eviction", e);
+        }
+    }
+
+    private void bumpVersion() {
+        long newVersion = version.incrementAndGet();
+        catalog.synchronous().invalidateAll();
+        trees.synchronous().invalidateAll();
+        logger.info("Course catalog cache evicted: version={}", newVersion);
+    }
+
+    private Optional<Course> loadTree(Long courseId) {
+        Optional<Course> course = courseRepository.findPublishedCourseWithDungeons(courseId);
+
+        // Initialize videos of every dungeon in one query (same persistence context)
+        course.ifPresent(c -> dungeonRepository.findByCourseIdWithVideos(courseId));
+
+        return course;
+    }
+
+    /**
+     * Tree cache key: course ID under a catalog version.
+     */
+    private static final class TreeKey {
+        private final long version;
+        private final Long courseId;
+
+        private TreeKey(long version, Long courseId) {
+            this.version = version;
+            this.courseId = courseId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TreeKey)) {
+                return false;
+            }
+            TreeKey that = (TreeKey) o;
+            return version == that.version && courseId.equals(that.courseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(version, courseId);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package tw.waterballsa.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +19,10 @@ import tw.waterballsa.repository.CourseRepository;
 import tw.waterballsa.repository.UserCourseOwnershipRepository;
 import tw.waterballsa.repository.VideoCompletionRepository;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for course-related business logic.
@@ -40,18 +44,27 @@ public class CourseService {
     @Autowired
     private VideoCompletionRepository videoCompletionRepository;
 
+    @Autowired
+    private OwnedCourseCache ownedCourseCache;
+
+    @Autowired
+    private CourseCatalogCache courseCatalogCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
-     * Get all published courses.
+     * Get all published courses (served from the in-process catalog cache).
      */
     public List<Course> getAllPublishedCourses() {
-        return courseRepository.findAllPublishedCourses();
+        return courseCatalogCache.getPublishedCourses();
     }
 
     /**
-     * Get a published course by ID with dungeons.
+     * Get a published course by ID with dungeons and videos (served from the in-process catalog cache).
      */
     public Optional<Course> getPublishedCourseWithDungeons(Long courseId) {
-        return courseRepository.findPublishedCourseWithDungeons(courseId);
+        return courseCatalogCache.getPublishedCourseTree(courseId);
     }
 
     /**
@@ -61,6 +74,14 @@ public class CourseService {
         return ownershipRepository.existsByUser_UserIdAndCourse_CourseId(userId, courseId);
     }
 
+    /**
+     * Get the IDs of all courses owned by a user (cached, for catalog rendering).
+     * Use {@link #userOwnsCourse} where an authoritative answer is required.
+     */
+    public OwnedCourseCache.OwnedCourseIds getOwnedCourseIds(Long userId) {
+        return ownedCourseCache.get(userId);
+    }
+
     /**
      * Get all courses owned by a user.
      */
@@ -94,6 +115,7 @@ public class CourseService {
         // Create new ownership
         UserCourseOwnership ownership = new UserCourseOwnership(user, course);
         ownership = ownershipRepository.save(ownership);
+        ownedCourseCache.invalidate(user.getUserId());
         logger.info("Course ownership created: ownershipId={}, userId={}, courseId={}",
                 ownership.getOwnershipId(), user.getUserId(), course.getCourseId());
 
@@ -119,7 +141,9 @@ public class CourseService {
      */
     @Transactional
     public Course createCourse(Course course) {
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        courseCatalogCache.evictAll();
+        return saved;
     }
 
     /**
@@ -127,7 +151,9 @@ public class CourseService {
      */
     @Transactional
     public Course updateCourse(Course course) {
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        courseCatalogCache.evictAll();
+        return saved;
     }
 
     /**
@@ -136,19 +162,39 @@ public class CourseService {
     @Transactional
     public void deleteCourse(Long courseId) {
         courseRepository.deleteById(courseId);
+        courseCatalogCache.evictAll();
     }
 
     /**
      * Get detailed course information with dungeons and videos.
      * Includes ownership status and video completion status for the user.
      *
+     * The course tree comes from the in-process catalog cache; per-user state costs a constant
+     * number of queries: ownership check and one set-based lookup of the user's completed videos.
+     *
+     * Timed as app.course.detail{outcome=found|not_found|error, viewer=member|anonymous}.
+     *
      * @param courseId the course ID
      * @param userId the user ID (can be null for anonymous users)
      * @return Optional containing CourseDetailResponse if found, empty otherwise
      */
     public Optional<CourseDetailResponse> getCourseDetail(Long courseId, Long userId) {
-        // Fetch course with dungeons
-        Optional<Course> courseOpt = courseRepository.findPublishedCourseWithDungeons(courseId);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Optional<CourseDetailResponse> detail = buildCourseDetail(courseId, userId);
+            outcome = detail.isPresent() ? "found" : "not_found";
+            return detail;
+        } finally {
+            sample.stop(meterRegistry.timer("app.course.detail",
+                    "outcome", outcome,
+                    "viewer", userId != null ? "member" : "anonymous"));
+        }
+    }
+
+    private Optional<CourseDetailResponse> buildCourseDetail(Long courseId, Long userId) {
+        // Fetch course tree (dungeons and videos initialized)
+        Optional<Course> courseOpt = courseCatalogCache.getPublishedCourseTree(courseId);
 
         if (courseOpt.isEmpty()) {
             return Optional.empty();
@@ -159,6 +205,11 @@ public class CourseService {
         // Check ownership
         boolean isOwned = userId != null && userOwnsCourse(userId, courseId);
 
+        // Fetch all completed videos of this course at once
+        Set<Long> completedVideoIds = userId != null
+                ? videoCompletionRepository.findCompletedVideoIdsByUserIdAndCourseId(userId, courseId)
+                : Collections.emptySet();
+
         // Build response
         CourseDetailResponse response = new CourseDetailResponse(course, isOwned);
 
@@ -166,14 +217,8 @@ public class CourseService {
         for (Dungeon dungeon : course.getDungeons()) {
             DungeonResponse dungeonResponse = new DungeonResponse(dungeon);
 
-            // Initialize videos collection within transaction to avoid LazyInitializationException
-            List<Video> videos = dungeon.getVideos();
-            videos.size(); // Force initialization
-
-            // Build video responses
-            for (Video video : videos) {
-                boolean completed = userId != null &&
-                    videoCompletionRepository.existsByUserUserIdAndVideoVideoId(userId, video.getVideoId());
+            for (Video video : dungeon.getVideos()) {
+                boolean completed = completedVideoIds.contains(video.getVideoId());
                 VideoResponse videoResponse = new VideoResponse(video, completed);
                 dungeonResponse.addVideo(videoResponse);
             }
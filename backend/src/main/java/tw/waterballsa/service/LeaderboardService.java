@@ -0,0 +1,437 @@
+package tw.waterballsa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tw.waterballsa.dto.LeaderboardEntryResponse;
+import tw.waterballsa.dto.LeaderboardResponse;
+import tw.waterballsa.dto.PaginationResponse;
+import tw.waterballsa.model.LevelCurve;
+import tw.waterballsa.model.OutboxEvent;
+import tw.waterballsa.model.User;
+import tw.waterballsa.repository.UserRepository;
+import tw.waterballsa.repository.UserRepository.UserExpView;
+import tw.waterballsa.repository.VideoCompletionRepository;
+import tw.waterballsa.repository.VideoCompletionRepository.CourseExpView;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exp leaderboards backed by Redis sorted sets.
+ *
+ * Keys:
+ * - leaderboard:global - member = userId, score = users.exp
+ * - leaderboard:course:{courseId} - member = userId, score = exp earned from that course's videos
+ *
+ * Scores are incremented (ZINCRBY) from VideoCompleted outbox events, and all boards are rebuilt
+ * from PostgreSQL nightly. Rank lookups (ZREVRANK) and page reads (ZREVRANGE) are O(log n)
+ * (+ page size). Redis is treated as a derived view of the database.
+ *
+ * Outbox delivery is at-least-once: an event is applied only if its leaderboard:applied:{eventId}
+ * marker could be set, in the same script as the increments. A failed increment fails the event,
+ * and the relay delivers it again.
+ *
+ * Rebuilds run on one node at a time (leaderboard:rebuild:lock). While one runs, the
+ * leaderboard:rebuilding marker (holding the rebuild start time) makes increments of events
+ * created after the start also land in a per-board delta set ({board}:delta), which is merged into
+ * the rebuilt board atomically when it is swapped in. Older events are already in the snapshot.
+ *
+ * @author Water Ball SA
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final String GLOBAL_KEY = "leaderboard:global";
+    private static final String COURSE_KEY_PREFIX = "leaderboard:course:";
+    private static final String COURSE_INDEX_KEY = "leaderboard:courses";
+    private static final String REBUILD_SUFFIX = ":rebuild:";
+    private static final String DELTA_SUFFIX = ":delta";
+    private static final String REBUILD_LOCK_KEY = "leaderboard:rebuild:lock";
+    private static final String REBUILDING_MARKER_KEY = "leaderboard:rebuilding";
+    private static final String APPLIED_KEY_PREFIX = "leaderboard:applied:";
+
+    /**
+     * Apply one event's exp once: ZINCRBY each board, and each board's delta set while a rebuild
+     * that started before the event was created is running.
+     * KEYS: applied marker, rebuilding marker, course index, then board/delta pairs.
+     * ARGV: member, exp, event creation time (epoch ms), applied marker TTL, delta TTL (seconds),
+     * course board key to index (or empty). Returns 0 if the event was already applied.
+     */
+    private static final RedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>(
+            "if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[4]) then "
+                    + "  return 0 "
+                    + "end "
+                    + "local started = redis.call('GET', KEYS[2]) "
+                    + "local recordDelta = started and tonumber(ARGV[3]) >= tonumber(started) "
+                    + "for i = 4, #KEYS, 2 do "
+                    + "  redis.call('ZINCRBY', KEYS[i], ARGV[2], ARGV[1]) "
+                    + "  if recordDelta then "
+                    + "    redis.call('ZINCRBY', KEYS[i + 1], ARGV[2], ARGV[1]) "
+                    + "    redis.call('EXPIRE', KEYS[i + 1], ARGV[5]) "
+                    + "  end "
+                    + "end "
+                    + "if ARGV[6] ~= '' then "
+                    + "  redis.call('SADD', KEYS[3], ARGV[6]) "
+                    + "end "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * Replace the board with the rebuilt one (or drop it if nothing was rebuilt) and merge the
+     * increments recorded since the snapshot, in one atomic step.
+     * KEYS: temp, board, delta. Returns the new board size.
+     */
+    private static final RedisScript<Long> SWAP_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then "
+                    + "  redis.call('RENAME', KEYS[1], KEYS[2]) "
+                    + "else "
+                    + "  redis.call('DEL', KEYS[2]) "
+                    + "end "
+                    + "if redis.call('EXISTS', KEYS[3]) == 1 then "
+                    + "  redis.call('ZUNIONSTORE', KEYS[2], 2, KEYS[2], KEYS[3]) "
+                    + "  redis.call('DEL', KEYS[3]) "
+                    + "end "
+                    + "return redis.call('ZCARD', KEYS[2])",
+            Long.class);
+
+    /**
+     * Delete the lock only if this run still owns it. KEYS: lock. ARGV: run ID.
+     */
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "  return redis.call('DEL', KEYS[1]) "
+                    + "end "
+                    + "return 0",
+            Long.class);
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserRepository userRepository;
+    private final VideoCompletionRepository videoCompletionRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxPageSize;
+    private final Duration rebuildLockTtl;
+    private final Duration appliedEventTtl;
+
+    public LeaderboardService(StringRedisTemplate redisTemplate,
+                              UserRepository userRepository,
+                              VideoCompletionRepository videoCompletionRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              LeaderboardSettings settings) {
+        this.redisTemplate = redisTemplate;
+        this.userRepository = userRepository;
+        this.videoCompletionRepository = videoCompletionRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxPageSize = settings.getMaxPageSize();
+        this.rebuildLockTtl = settings.getRebuildLockTtl();
+        this.appliedEventTtl = settings.getAppliedEventTtl();
+    }
+
+    /**
+     * Add the exp awarded by a video completion to the global and course leaderboards.
+     * Runs in the outbox relay; an exception fails the event so the relay retries it.
+     *
+     * @param message relayed outbox event; events other than VideoCompleted are ignored
+     */
+    @EventListener
+    public void onOutboxMessage(OutboxMessage message) {
+        if (!OutboxEvent.VIDEO_COMPLETED.equals(message.getEventType())) {
+            return;
+        }
+
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable VideoCompleted payload: eventId=" + message.getEventId(), e);
+        }
+
+        int expAwarded = event.path("expAwarded").asInt();
+        if (expAwarded <= 0) {
+            return;
+        }
+        Long courseId = event.hasNonNull("courseId") ? event.get("courseId").asLong() : null;
+        applyExp(message.getEventId(), message.getCreatedAt(), event.get("userId").asLong(), courseId, expAwarded);
+    }
+
+    /**
+     * Get one page of the global leaderboard.
+     *
+     * @param page 1-based page number
+     * @param size page size (capped at app.leaderboard.max-page-size)
+     */
+    public LeaderboardResponse getGlobalLeaderboard(int page, int size) {
+        return getPage(GLOBAL_KEY, null, page, size);
+    }
+
+    /**
+     * Get one page of a course leaderboard.
+     *
+     * @param courseId the course ID
+     * @param page 1-based page number
+     * @param size page size (capped at app.leaderboard.max-page-size)
+     */
+    public LeaderboardResponse getCourseLeaderboard(Long courseId, int page, int size) {
+        return getPage(courseKey(courseId), courseId, page, size);
+    }
+
+    /**
+     * Get a user's position on the global leaderboard.
+     *
+     * @return entry with rank, or rank null if the user has no exp yet
+     */
+    public LeaderboardEntryResponse getGlobalRank(Long userId) {
+        return getRank(GLOBAL_KEY, userId);
+    }
+
+    /**
+     * Get a user's position on a course leaderboard.
+     *
+     * @return entry with rank, or rank null if the user has no exp in this course yet
+     */
+    public LeaderboardEntryResponse getCourseRank(Long courseId, Long userId) {
+        return getRank(courseKey(courseId), userId);
+    }
+
+    /**
+     * Rebuild all leaderboards from PostgreSQL.
+     *
+     * Only one node rebuilds at a time; a node that cannot take the lock skips the run.
+     * Each board is written to a per-run temporary key and swapped in atomically together with
+     * the increments of events created since the rebuild started, so readers never see a partial
+     * board and no committed completion is lost. An event committed while the snapshot starts may be
+     * counted twice (or, if created just before the start, missed) until the next rebuild.
+     */
+    @Scheduled(cron = "${app.leaderboard.rebuild-cron:0 0 4 * * *}")
+    public void rebuild() {
+        String runId = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(REBUILD_LOCK_KEY, runId, rebuildLockTtl))) {
+            logger.info("Leaderboard rebuild already running on another node, skipping");
+            return;
+        }
+
+        try {
+            rebuildLocked(runId, System.currentTimeMillis());
+        } finally {
+            redisTemplate.delete(REBUILDING_MARKER_KEY);
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(REBUILD_LOCK_KEY), runId);
+        }
+    }
+
+    private void rebuildLocked(String runId, long startedAt) {
+        logger.info("Rebuilding leaderboards from database: runId={}", runId);
+
+        // Drop deltas left by an interrupted run, then start recording increments before the snapshot
+        Set<String> previousCourseKeys = redisTemplate.opsForSet().members(COURSE_INDEX_KEY);
+        Set<String> boards = new HashSet<>(previousCourseKeys != null ? previousCourseKeys : Set.of());
+        boards.add(GLOBAL_KEY);
+        redisTemplate.delete(boards.stream().map(LeaderboardService::deltaKey).collect(Collectors.toList()));
+        redisTemplate.opsForValue().set(REBUILDING_MARKER_KEY, String.valueOf(startedAt), rebuildLockTtl);
+
+        // Streaming queries need an open transaction
+        int globalSize = readOnlyTransaction.execute(status -> rebuildGlobal(runId));
+        Set<String> rebuiltCourseKeys = readOnlyTransaction.execute(status -> rebuildCourses(runId));
+
+        // Boards with no rows in the snapshot keep only the increments recorded since
+        Set<String> courseKeys = redisTemplate.opsForSet().members(COURSE_INDEX_KEY);
+        if (courseKeys != null) {
+            for (String key : courseKeys) {
+                if (!rebuiltCourseKeys.contains(key) && swapIn(tempKey(key, runId), key) == 0) {
+                    redisTemplate.opsForSet().remove(COURSE_INDEX_KEY, key);
+                }
+            }
+        }
+
+        logger.info("Leaderboards rebuilt: globalEntries={}, courseBoards={}", globalSize, rebuiltCourseKeys.size());
+    }
+
+    /**
+     * Build the leaderboards on startup if Redis has none (e.g. fresh instance or flushed cache).
+     * Runs in the background: ready listeners run on the main thread, which a rebuild would block.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(GLOBAL_KEY))) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.warn("Skipping leaderboard warm-up: {}", e.getMessage());
+        }
+    }
+
+    private void applyExp(Long eventId, LocalDateTime createdAt, Long userId, Long courseId, int expAwarded) {
+        List<String> keys = new ArrayList<>(List.of(APPLIED_KEY_PREFIX + eventId, REBUILDING_MARKER_KEY,
+                COURSE_INDEX_KEY, GLOBAL_KEY, deltaKey(GLOBAL_KEY)));
+        String courseKey = courseId != null ? courseKey(courseId) : "";
+        if (courseId != null) {
+            keys.add(courseKey);
+            keys.add(deltaKey(courseKey));
+        }
+
+        Long applied = redisTemplate.execute(APPLY_SCRIPT, keys,
+                userId.toString(),
+                String.valueOf(expAwarded),
+                String.valueOf(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()),
+                String.valueOf(appliedEventTtl.getSeconds()),
+                String.valueOf(rebuildLockTtl.getSeconds()),
+                courseKey);
+        if (applied != null && applied == 0) {
+            logger.debug("VideoCompleted event already applied to leaderboards: eventId={}", eventId);
+        }
+    }
+
+    private LeaderboardResponse getPage(String key, Long courseId, int page, int size) {
+        int safePage = Math.max(page, 1);
+        int safeSize = Math.min(Math.max(size, 1), maxPageSize);
+        long start = (long) (safePage - 1) * safeSize;
+
+        Set<TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                .reverseRangeWithScores(key, start, start + safeSize - 1);
+        Long total = redisTemplate.opsForZSet().zCard(key);
+
+        List<TypedTuple<String>> rows = tuples != null ? new ArrayList<>(tuples) : List.of();
+        Map<Long, String> nicknames = findNicknames(rows.stream()
+                .map(tuple -> Long.valueOf(tuple.getValue()))
+                .collect(Collectors.toList()));
+
+        List<LeaderboardEntryResponse> entries = new ArrayList<>(rows.size());
+        long rank = start + 1;
+        for (TypedTuple<String> tuple : rows) {
+            Long userId = Long.valueOf(tuple.getValue());
+            entries.add(toEntry(rank++, userId, nicknames.get(userId), tuple.getScore()));
+        }
+
+        return new LeaderboardResponse(courseId, entries,
+                new PaginationResponse(safePage, safeSize, total != null ? total : 0));
+    }
+
+    private LeaderboardEntryResponse getRank(String key, Long userId) {
+        String member = userId.toString();
+        Long index = redisTemplate.opsForZSet().reverseRank(key, member);
+        Double score = index != null ? redisTemplate.opsForZSet().score(key, member) : null;
+        String nickname = findNicknames(List.of(userId)).get(userId);
+
+        return toEntry(index != null ? index + 1 : null, userId, nickname, score);
+    }
+
+    private LeaderboardEntryResponse toEntry(Long rank, Long userId, String nickname, Double score) {
+        int exp = score != null ? score.intValue() : 0;
+        return new LeaderboardEntryResponse(rank, userId, nickname, exp, LevelCurve.getDefault().levelFor(exp));
+    }
+
+    private Map<Long, String> findNicknames(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        // Nickname is a plain column; PII stays encrypted (decrypted lazily only on access)
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getUserId, User::getNickname));
+    }
+
+    private int rebuildGlobal(String runId) {
+        String tempKey = tempKey(GLOBAL_KEY, runId);
+
+        Set<TypedTuple<String>> batch = new HashSet<>();
+        int count = 0;
+
+        try (Stream<UserExpView> rows = userRepository.streamAllWithExp()) {
+            for (UserExpView row : (Iterable<UserExpView>) rows::iterator) {
+                batch.add(new DefaultTypedTuple<>(row.getUserId().toString(), row.getExp().doubleValue()));
+                count++;
+                if (batch.size() >= REBUILD_BATCH_SIZE) {
+                    redisTemplate.opsForZSet().add(tempKey, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisTemplate.opsForZSet().add(tempKey, batch);
+        }
+
+        swapIn(tempKey, GLOBAL_KEY);
+        return count;
+    }
+
+    private Set<String> rebuildCourses(String runId) {
+        Map<String, Set<TypedTuple<String>>> pendingByKey = new HashMap<>();
+
+        try (Stream<CourseExpView> rows = videoCompletionRepository.streamCourseExpTotals()) {
+            rows.forEach(row -> {
+                String key = courseKey(row.getCourseId());
+                Set<TypedTuple<String>> pending = pendingByKey.computeIfAbsent(key, k -> new HashSet<>());
+                pending.add(new DefaultTypedTuple<>(row.getUserId().toString(), row.getExp().doubleValue()));
+
+                if (pending.size() >= REBUILD_BATCH_SIZE) {
+                    redisTemplate.opsForZSet().add(tempKey(key, runId), pending);
+                    pending.clear();
+                }
+            });
+        }
+
+        pendingByKey.forEach((key, pending) -> {
+            String tempKey = tempKey(key, runId);
+            if (!pending.isEmpty()) {
+                redisTemplate.opsForZSet().add(tempKey, pending);
+            }
+            swapIn(tempKey, key);
+            redisTemplate.opsForSet().add(COURSE_INDEX_KEY, key);
+        });
+        return pendingByKey.keySet();
+    }
+
+    /**
+     * Swap a rebuilt board in and merge its delta (see SWAP_SCRIPT).
+     *
+     * @return size of the live board afterwards
+     */
+    private long swapIn(String tempKey, String key) {
+        Long size = redisTemplate.execute(SWAP_SCRIPT, List.of(tempKey, key, deltaKey(key)));
+        return size != null ? size : 0;
+    }
+
+    private static String courseKey(Long courseId) {
+        return COURSE_KEY_PREFIX + courseId;
+    }
+
+    private static String tempKey(String key, String runId) {
+        return key + REBUILD_SUFFIX + runId;
+    }
+
+    private static String deltaKey(String key) {
+        return key + DELTA_SUFFIX;
+    }
+}
@@ -0,0 +1,49 @@
+package tw.waterballsa.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * app.leaderboard.* settings used by {@link LeaderboardService}.
+ * The rebuild schedule (rebuild-cron) is read by the @Scheduled annotation directly.
+ *
+ * @author Water Ball SA
+ */
+@Component
+final class LeaderboardSettings {
+
+    private final int maxPageSize;
+    private final Duration rebuildLockTtl;
+    private final Duration appliedEventTtl;
+
+    LeaderboardSettings(@Value("${app.leaderboard.max-page-size:100}") int maxPageSize,
+                        @Value("${app.leaderboard.rebuild-lock-seconds:1800}") long rebuildLockSeconds,
+                        @Value("${app.leaderboard.applied-event-ttl-hours:24}") long appliedEventTtlHours) {
+        this.maxPageSize = maxPageSize;
+        this.rebuildLockTtl = Duration.ofSeconds(rebuildLockSeconds);
+        this.appliedEventTtl = Duration.ofHours(appliedEventTtlHours);
+    }
+
+    /**
+     * Largest page a leaderboard read returns.
+     */
+    int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    /**
+     * TTL of the rebuild lock, the rebuilding marker and the delta sets.
+     */
+    Duration getRebuildLockTtl() {
+        return rebuildLockTtl;
+    }
+
+    /**
+     * How long applied VideoCompleted event markers are kept to recognise redeliveries.
+     */
+    Duration getAppliedEventTtl() {
+        return appliedEventTtl;
+    }
+}
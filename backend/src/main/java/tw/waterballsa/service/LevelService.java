@@ -1,18 +1,17 @@
 package tw.waterballsa.service;
 
 import org.springframework.stereotype.Service;
+import tw.waterballsa.model.LevelCurve;
 
 /**
  * Level calculation service for gamification system
  * Handles exp-to-level conversion and progress tracking
+ * using the shared level curve (same table as User and the session/completion responses)
  */
 @Service
 public class LevelService {
 
-    // XP required for each level (exponential growth)
-    // Level 1: 0, Level 2: 100, Level 3: 250, Level 4: 450, etc.
-    private static final int BASE_EXP = 100;
-    private static final double GROWTH_RATE = 1.5;
+    private final LevelCurve levelCurve = LevelCurve.getDefault();
 
     /**
      * Calculate level information from total experience points
@@ -22,51 +21,19 @@ public class LevelService {
             totalExp = 0;
         }
 
-        int level = calculateLevel(totalExp);
-        int expForCurrentLevel = getExpRequiredForLevel(level);
-        Integer expForNextLevel = getExpRequiredForLevel(level + 1);
+        int level = levelCurve.levelFor(totalExp);
 
-        // Calculate progress within current level
-        int expInCurrentLevel = totalExp - expForCurrentLevel;
-        int expNeededForNextLevel = expForNextLevel - expForCurrentLevel;
-        double progressPercentage = (expNeededForNextLevel > 0)
-            ? (expInCurrentLevel * 100.0 / expNeededForNextLevel)
-            : 100.0;
+        // Total exp for the next level; stays at the max level's requirement once reached
+        int expForNextLevel = levelCurve.expRequiredFor(level + 1);
 
         return LevelInfo.builder()
                 .level(level)
                 .currentExp(totalExp)
                 .expForNextLevel(expForNextLevel)
-                .expProgressPercentage(Math.min(progressPercentage, 100.0))
+                .expProgressPercentage(levelCurve.progressPercentage(level, totalExp))
                 .build();
     }
 
-    /**
-     * Calculate level from total experience points
-     */
-    private int calculateLevel(int totalExp) {
-        int level = 1;
-        while (totalExp >= getExpRequiredForLevel(level + 1)) {
-            level++;
-        }
-        return level;
-    }
-
-    /**
-     * Get total experience required to reach a specific level
-     */
-    private int getExpRequiredForLevel(int level) {
-        if (level <= 1) {
-            return 0;
-        }
-
-        int totalExp = 0;
-        for (int i = 2; i <= level; i++) {
-            totalExp += (int) (BASE_EXP * Math.pow(GROWTH_RATE, i - 2));
-        }
-        return totalExp;
-    }
-
     /**
      * Level information DTO
      */
@@ -0,0 +1,94 @@
+package tw.waterballsa.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Local payment gateway that approves every charge after a simulated latency.
+ *
+ * Charges complete on a single background thread; results are kept in memory for an hour so the
+ * poller can query them. After a restart unknown charges report NOT_FOUND and are resubmitted.
+ * Active unless app.payments.gateway selects another implementation.
+ *
+ * Single-node only: results live in this node's memory, so a pending-payment poll running on
+ * another node sees NOT_FOUND and resubmits the charge there. Run one instance, or a real gateway,
+ * when scaling out.
+ *
+ * @author Water Ball SA
+ */
+@Component
+@ConditionalOnProperty(name = "app.payments.gateway", havingValue = "mock", matchIfMissing = true)
+public class MockPaymentGateway implements PaymentGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockPaymentGateway.class);
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mock-payment-gateway");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Cache<Long, PaymentResult> results = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private final long latencyMs;
+
+    public MockPaymentGateway(@Value("${app.payments.mock.latency-ms:300}") long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public String getMethod() {
+        return "MOCK";
+    }
+
+    @Override
+    public void submit(PaymentRequest request, Consumer<PaymentResult> callback) {
+        Long orderId = request.getOrderId();
+        PaymentResult existing = results.asMap().putIfAbsent(orderId, PaymentResult.processing(orderId));
+        if (existing != null) {
+            // Already submitted: never charge twice, just report a known outcome again
+            if (existing.isFinal()) {
+                callback.accept(existing);
+            }
+            return;
+        }
+
+        executor.schedule(() -> {
+            PaymentResult result = PaymentResult.succeeded(orderId);
+            results.put(orderId, result);
+            logger.debug("Mock payment approved: orderId={}, amount={}", orderId, request.getAmount());
+            try {
+                callback.accept(result);
+            } catch (Exception e) {
+                // The poller picks the result up again
+                logger.error("Payment callback failed: orderId={}", orderId, e);
+            }
+        }, latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public PaymentResult query(Long orderId) {
+        PaymentResult result = results.getIfPresent(orderId);
+        return result != null ? result : PaymentResult.notFound(orderId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,23 +1,40 @@
 package tw.waterballsa.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tw.waterballsa.model.*;
+import tw.waterballsa.dto.CursorPageResponse;
+import tw.waterballsa.dto.OrderResponse;
+import tw.waterballsa.model.Course;
+import tw.waterballsa.model.Order;
+import tw.waterballsa.model.OrderItem;
+import tw.waterballsa.model.PurchaseIdempotencyKey;
+import tw.waterballsa.model.User;
 import tw.waterballsa.repository.CourseRepository;
 import tw.waterballsa.repository.OrderItemRepository;
 import tw.waterballsa.repository.OrderRepository;
+import tw.waterballsa.repository.PurchaseIdempotencyKeyRepository;
 import tw.waterballsa.repository.UserRepository;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Service for order-related business logic.
- * Handles direct purchases, mock payment processing, and order history.
+ * Handles direct purchases (paid asynchronously through PaymentService), cancellation, and order history.
  *
  * @author Water Ball SA
  */
@@ -27,6 +44,8 @@ public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+    private static final int MAX_ORDER_PAGE_SIZE = 50;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -42,23 +61,83 @@ public class OrderService {
     @Autowired
     private CourseService courseService;
 
+    @Autowired
+    private PurchaseIdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.orders.idempotency-key-ttl-hours:24}")
+    private long idempotencyKeyTtlHours;
+
     /**
      * Create a direct purchase order for a single course (Buy Now flow).
-     * Uses mock payment that automatically marks the order as paid.
+     * The order is saved as PENDING and its payment submitted to the payment gateway after
+     * commit (see {@link PaymentService}); course ownership is granted once the payment succeeds.
+     *
+     * Purchases of the same course by the same user are serialized with an advisory lock,
+     * so a double submission sees the first one's pending order instead of creating a second order.
+     * With an idempotency key, a repeated submission returns the stored response of the first
+     * one without touching the order tables. Uses of one key are serialized by a second lock, taken
+     * first, so a key reused for another course is rejected instead of failing on the unique key.
+     *
+     * Timed as app.order.purchase{outcome=success|invalid|conflict|error, idempotency_key=present|absent}.
      *
      * @param userId the ID of the purchasing user
      * @param courseId the ID of the course to purchase
-     * @return the created and paid order
-     * @throws IllegalArgumentException if user or course not found
+     * @param idempotencyKey client-supplied Idempotency-Key, or null
+     * @return the created pending order (or the stored response of the earlier one for a repeated key)
+     * @throws IllegalArgumentException if course not found, or the key was used for another course
      * @throws IllegalStateException if user already owns the course
      */
     @Transactional
-    public Order createDirectPurchase(Long userId, Long courseId) {
-        logger.info("Creating direct purchase: userId={}, courseId={}", userId, courseId);
+    public OrderResponse createDirectPurchase(Long userId, Long courseId, String idempotencyKey) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            OrderResponse response = purchase(userId, courseId, idempotencyKey);
+            outcome = "success";
+            return response;
+        } catch (IllegalArgumentException e) {
+            outcome = "invalid";
+            throw e;
+        } catch (IllegalStateException e) {
+            outcome = "conflict";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("app.order.purchase",
+                    "outcome", outcome,
+                    "idempotency_key", idempotencyKey != null ? "present" : "absent"));
+        }
+    }
 
-        // Fetch user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("找不到使用者"));
+    private OrderResponse purchase(Long userId, Long courseId, String idempotencyKey) {
+        logger.info("Creating direct purchase: userId={}, courseId={}, idempotencyKey={}",
+                userId, courseId, idempotencyKey);
+
+        // Wait for any in-flight purchase with this key, then of this course, by this user to finish.
+        // Always in this order, so two purchases never hold one lock each while waiting for the other.
+        if (idempotencyKey != null) {
+            orderRepository.lockPurchase(idempotencyLockKey(userId, idempotencyKey));
+        }
+        orderRepository.lockPurchase(purchaseLockKey(userId, courseId));
+
+        if (idempotencyKey != null) {
+            Optional<PurchaseIdempotencyKey> stored = idempotencyKeyRepository
+                    .findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+            if (stored.isPresent()) {
+                return replayPurchase(stored.get(), courseId);
+            }
+        }
+
+        // Reference to the authenticated user (only the foreign key is needed)
+        User user = userRepository.getReferenceById(userId);
 
         // Fetch course
         Course course = courseRepository.findById(courseId)
@@ -72,58 +151,148 @@ public class OrderService {
             throw new IllegalStateException("您已擁有此課程");
         }
 
-        // Create order
-        Order order = new Order(user);
+        // A purchase of this course still waiting for its payment is returned instead of charging again
+        List<Long> pendingOrderIds = orderRepository.findPendingOrderIdsByUserIdAndCourseId(userId, courseId);
+        Order order;
+        if (!pendingOrderIds.isEmpty()) {
+            Long pendingOrderId = pendingOrderIds.get(0);
+            order = orderRepository.findWithItemsByOrderIdAndUserId(pendingOrderId, userId)
+                    .orElseThrow(() -> new IllegalStateException("Pending order disappeared: " + pendingOrderId));
+            logger.info("Returning pending order: orderId={}", order.getOrderId());
+        } else {
+            // Create order
+            order = new Order(user);
+
+            // Create order item
+            OrderItem orderItem = new OrderItem(course, course.getPrice());
+            order.addOrderItem(orderItem);
+
+            // Save order as PENDING (cascade will save order items)
+            order = orderRepository.save(order);
+            logger.info("Order created: orderId={}", order.getOrderId());
+
+            // Payment runs after commit; ownership is granted when the gateway confirms it
+            paymentService.submitAfterCommit(order);
+        }
 
-        // Create order item
-        OrderItem orderItem = new OrderItem(course, course.getPrice());
-        order.addOrderItem(orderItem);
+        OrderResponse response = new OrderResponse(order);
+        if (idempotencyKey != null) {
+            idempotencyKeyRepository.save(new PurchaseIdempotencyKey(
+                    userId, idempotencyKey, courseId, order.getOrderId(), toJson(response)));
+        }
+        return response;
+    }
 
-        // Save order (cascade will save order items)
-        order = orderRepository.save(order);
-        logger.info("Order created: orderId={}", order.getOrderId());
+    /**
+     * Return the stored response of the earlier purchase with the same idempotency key, unchanged.
+     * Clients follow the payment status through the order itself (GET /api/orders/{orderId}).
+     */
+    private OrderResponse replayPurchase(PurchaseIdempotencyKey stored, Long courseId) {
+        if (!stored.getCourseId().equals(courseId)) {
+            throw new IllegalArgumentException("此 Idempotency-Key 已用於其他課程");
+        }
 
-        // Process mock payment (automatically mark as paid)
-        processMockPayment(order);
-        logger.info("Payment processed: orderId={}, status={}", order.getOrderId(), order.getPaymentStatus());
+        logger.info("Replaying purchase for idempotency key: userId={}, orderId={}",
+                stored.getUserId(), stored.getOrderId());
+        try {
+            return objectMapper.readValue(stored.getResponseBody(), OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(
+                    "Stored purchase response is unreadable: orderId=" + stored.getOrderId(), e);
+        }
+    }
 
-        // Grant course ownership after successful payment
-        courseService.grantCourseOwnership(user, course);
-        logger.info("Course ownership granted: userId={}, courseId={}", userId, courseId);
+    private String toJson(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize purchase response", e);
+        }
+    }
 
-        return order;
+    private static String encodeOrderCursor(Long orderId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("o:" + orderId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeOrderCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (raw.startsWith("o:")) {
+                return Long.parseLong(raw.substring(2));
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
     }
 
     /**
-     * Process mock payment for an order.
-     * In a real system, this would integrate with a payment gateway.
-     *
-     * @param order the order to process payment for
+     * Advisory lock key for a (user, course) pair.
+     * Collisions only make unrelated purchases wait for each other.
+     */
+    private static long purchaseLockKey(Long userId, Long courseId) {
+        return (userId << 32) ^ courseId;
+    }
+
+    /**
+     * Advisory lock key for a (user, idempotency key) pair, matching the unique key of purchase_idempotency_keys.
+     * The top bit is set to keep it apart from {@link #purchaseLockKey} values.
+     * Collisions only make unrelated purchases wait for each other.
+     */
+    private static long idempotencyLockKey(Long userId, String idempotencyKey) {
+        return (userId << 32) ^ (idempotencyKey.hashCode() & 0xFFFFFFFFL) ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Delete idempotency keys older than app.orders.idempotency-key-ttl-hours.
      */
+    @Scheduled(cron = "${app.orders.idempotency-key-purge-cron:0 30 * * * *}")
     @Transactional
-    public void processMockPayment(Order order) {
-        order.markAsPaid("MOCK");
-        orderRepository.save(order);
+    public void purgeExpiredIdempotencyKeys() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(
+                LocalDateTime.now().minusHours(idempotencyKeyTtlHours));
+        if (deleted > 0) {
+            logger.info("Purged expired purchase idempotency keys: count={}", deleted);
+        }
     }
 
     /**
-     * Get order history for a user.
+     * Get one page of a user's order history, newest first.
+     *
+     * Two statements per page: a keyset query for the page's order IDs, then one join fetch
+     * of those orders with their items and courses.
      *
      * @param userId the user ID
-     * @return list of orders, ordered by creation date (newest first)
+     * @param cursor opaque cursor from a previous page, or null for the first page
+     * @param size page size (max 50)
+     * @return page of orders with the cursor of the next page (null if none)
+     * @throws IllegalArgumentException if the cursor is malformed
      */
-    public List<Order> getOrderHistory(Long userId) {
-        List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
-
-        // Force initialization of order items and their courses within transaction to avoid LazyInitializationException
-        for (Order order : orders) {
-            order.getOrderItems().size(); // Force initialization of order items
-            for (OrderItem item : order.getOrderItems()) {
-                item.getCourse().getTitle(); // Force initialization of course
-            }
+    public CursorPageResponse<OrderResponse> getOrderHistory(Long userId, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_ORDER_PAGE_SIZE);
+        long beforeOrderId = decodeOrderCursor(cursor);
+
+        // One extra ID tells whether there is a next page
+        List<Long> orderIds = orderRepository.findOrderIdsByUserIdBefore(
+                userId, beforeOrderId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = orderIds.size() > pageSize;
+        if (hasNext) {
+            orderIds = orderIds.subList(0, pageSize);
         }
 
-        return orders;
+        List<OrderResponse> orders = orderIds.isEmpty()
+                ? List.of()
+                : orderRepository.findWithItemsByOrderIdIn(orderIds).stream()
+                        .map(OrderResponse::new)
+                        .collect(Collectors.toList());
+
+        // Forward-only: the order page loads more on demand, it never pages back
+        String nextCursor = hasNext ? encodeOrderCursor(orderIds.get(orderIds.size() - 1)) : null;
+        return new CursorPageResponse<>(orders, pageSize, nextCursor, null, null);
     }
 
     /**
@@ -131,40 +300,20 @@ public class OrderService {
      *
      * @param orderId the order ID
      * @param userId the user ID (for authorization)
-     * @return Optional containing the order if found and belongs to user
+     * @return Optional containing the order (with items and courses loaded) if found and belongs to user
      */
     public Optional<Order> getOrderById(Long orderId, Long userId) {
-        Optional<Order> orderOpt = orderRepository.findByOrderIdAndUserId(orderId, userId);
-
-        // Force initialization of order items and their courses within transaction
-        orderOpt.ifPresent(order -> {
-            order.getOrderItems().size();
-            for (OrderItem item : order.getOrderItems()) {
-                item.getCourse().getTitle();
-            }
-        });
-
-        return orderOpt;
+        return orderRepository.findWithItemsByOrderIdAndUserId(orderId, userId);
     }
 
     /**
      * Get all paid orders for a user.
      *
      * @param userId the user ID
-     * @return list of paid orders
+     * @return list of paid orders (with items and courses loaded)
      */
     public List<Order> getPaidOrders(Long userId) {
-        List<Order> orders = orderRepository.findPaidOrdersByUserId(userId);
-
-        // Force initialization of order items and their courses within transaction
-        for (Order order : orders) {
-            order.getOrderItems().size();
-            for (OrderItem item : order.getOrderItems()) {
-                item.getCourse().getTitle();
-            }
-        }
-
-        return orders;
+        return orderRepository.findPaidOrdersWithItemsByUserId(userId);
     }
 
     /**
@@ -177,10 +326,14 @@ public class OrderService {
      */
     @Transactional
     public void cancelOrder(Long orderId, Long userId) {
-        Order order = orderRepository.findByOrderIdAndUserId(orderId, userId)
+        // Row lock: a payment result for this order waits for the cancel (and is then ignored)
+        Order order = orderRepository.findByOrderIdAndUserIdForUpdate(orderId, userId)
                 .orElseThrow(() -> new IllegalArgumentException("找不到訂單"));
 
-        if (order.getPaymentStatus() == Order.PaymentStatus.PAID) {
+        if (order.getPaymentStatus() == Order.PaymentStatus.CANCELLED) {
+            return;
+        }
+        if (!order.getPaymentStatus().canTransitionTo(Order.PaymentStatus.CANCELLED)) {
             throw new IllegalStateException("已付款的訂單無法取消");
         }
 
@@ -0,0 +1,54 @@
+package tw.waterballsa.service;
+
+import tw.waterballsa.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event published by the outbox relay for each relayed outbox row.
+ * Delivery is at-least-once: listeners must tolerate seeing the same event ID twice.
+ *
+ * Listen with {@code @EventListener} and filter on {@link #getEventType()}
+ * (see the constants on {@link OutboxEvent}).
+ *
+ * @author Water Ball SA
+ */
+public class OutboxMessage {
+
+    private final Long eventId;
+    private final String eventType;
+    private final Long aggregateId;
+    private final String payload;
+    private final LocalDateTime createdAt;
+
+    public OutboxMessage(OutboxEvent event) {
+        this.eventId = event.getEventId();
+        this.eventType = event.getEventType();
+        this.aggregateId = event.getAggregateId();
+        this.payload = event.getPayload();
+        this.createdAt = event.getCreatedAt();
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    /**
+     * Event payload as JSON.
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,164 @@
+package tw.waterballsa.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tw.waterballsa.model.OutboxEvent;
+import tw.waterballsa.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background relay delivering outbox events to their consumers.
+ *
+ * Each run locks a batch of unpublished rows (FOR UPDATE SKIP LOCKED, so relays on several
+ * nodes never deliver the same batch concurrently), hands every event to the in-process
+ * {@link OutboxMessage} listeners and - when enabled - appends it to a Redis Stream, then marks
+ * it published in the same transaction. Delivery is at-least-once: a crash between delivery and
+ * commit delivers the batch again.
+ *
+ * Listeners run inside the relay transaction; listeners writing to the database should use
+ * their own (REQUIRES_NEW) transaction so a failure cannot roll back the whole batch.
+ * A failing event is retried on the next runs up to app.outbox.max-attempts, then left in the
+ * table (with its last error) for inspection.
+ *
+ * @author Water Ball SA
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.relay.enabled:true}")
+    private boolean relayEnabled;
+
+    @Value("${app.outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.redis-stream.enabled:false}")
+    private boolean redisStreamEnabled;
+
+    @Value("${app.outbox.redis-stream.key:events:outbox}")
+    private String streamKey;
+
+    @Value("${app.outbox.redis-stream.max-length:100000}")
+    private long streamMaxLength;
+
+    @Value("${app.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       StringRedisTemplate redisTemplate,
+                       PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Relay unpublished events batch by batch until the backlog is drained.
+     * A batch with a failed event ends the run, so failures are retried once per interval.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:1000}")
+    public void relay() {
+        if (!relayEnabled) {
+            return;
+        }
+
+        int relayed;
+        int total = 0;
+        do {
+            Integer count = transactionTemplate.execute(status -> relayBatch());
+            relayed = count != null ? count : 0;
+            total += relayed;
+        } while (relayed >= batchSize);
+
+        if (total > 0) {
+            logger.debug("Relayed outbox events: count={}", total);
+        }
+    }
+
+    /**
+     * Lock, deliver and mark one batch.
+     *
+     * @return number of events published in this batch
+     */
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnpublishedBatch(maxAttempts, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        int published = 0;
+        boolean appendedToStream = false;
+        for (OutboxEvent event : batch) {
+            try {
+                eventPublisher.publishEvent(new OutboxMessage(event));
+                if (redisStreamEnabled) {
+                    appendToStream(event);
+                    appendedToStream = true;
+                }
+                event.markPublished();
+                published++;
+            } catch (Exception e) {
+                event.recordFailure(e.toString());
+                logger.warn("Failed to relay outbox event: eventId={}, type={}, attempts={}",
+                        event.getEventId(), event.getEventType(), event.getAttempts(), e);
+            }
+        }
+
+        if (appendedToStream) {
+            try {
+                redisTemplate.opsForStream().trim(streamKey, streamMaxLength, true);
+            } catch (Exception e) {
+                // Trimming is housekeeping only; the next batch trims again
+                logger.warn("Failed to trim outbox stream: key={}", streamKey, e);
+            }
+        }
+
+        // Managed entities: the dirty published_at / attempts columns are flushed on commit
+        return published;
+    }
+
+    private void appendToStream(OutboxEvent event) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventId", event.getEventId().toString());
+        fields.put("eventType", event.getEventType());
+        fields.put("aggregateId", event.getAggregateId().toString());
+        fields.put("payload", event.getPayload());
+        fields.put("createdAt", event.getCreatedAt().toString());
+        redisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(streamKey));
+    }
+
+    /**
+     * Delete events published more than app.outbox.retention-hours ago.
+     */
+    @Scheduled(cron = "${app.outbox.purge-cron:0 45 * * * *}")
+    public void purgePublished() {
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(
+                LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged published outbox events: count={}", deleted);
+        }
+    }
+}
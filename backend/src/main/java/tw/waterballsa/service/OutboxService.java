@@ -0,0 +1,53 @@
+package tw.waterballsa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tw.waterballsa.model.OutboxEvent;
+import tw.waterballsa.repository.OutboxEventRepository;
+
+import java.util.Map;
+
+/**
+ * Writes domain events to the transactional outbox.
+ *
+ * An event is one INSERT in the caller's transaction: it commits or rolls back together
+ * with the change it describes, and the request never waits for the event's listeners.
+ * Delivery happens later in {@link OutboxRelay}.
+ *
+ * @author Water Ball SA
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Record a domain event in the current transaction.
+     *
+     * @param eventType event type (see the constants on {@link OutboxEvent})
+     * @param aggregateId ID of the entity the event is about
+     * @param payload event payload, serialized as JSON
+     * @throws org.springframework.transaction.IllegalTransactionStateException if no transaction is active
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String eventType, Long aggregateId, Map<String, ?> payload) {
+        outboxEventRepository.save(new OutboxEvent(eventType, aggregateId, toJson(payload)));
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package tw.waterballsa.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tw.waterballsa.repository.UserCourseOwnershipRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Per-user cache of owned course IDs for the course catalog.
+ *
+ * Each entry is a sorted long[] (one slot per owned course) loaded with a single query,
+ * so rendering the catalog needs no ownership queries once the entry is warm.
+ * Entries are invalidated when ownership changes: on this node immediately, and on every other
+ * node through a Redis channel once the change commits. The short TTL bounds a lost message.
+ *
+ * @author Water Ball SA
+ */
+@Component
+public class OwnedCourseCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OwnedCourseCache.class);
+
+    static final String INVALIDATION_CHANNEL = "owned-courses:invalidate";
+
+    /**
+     * Identifies this JVM so it can ignore its own invalidation messages.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final UserCourseOwnershipRepository ownershipRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final AsyncCache<Long, OwnedCourseIds> cache;
+
+    public OwnedCourseCache(UserCourseOwnershipRepository ownershipRepository,
+                            StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${app.cache.owned-courses.max-size:10000}") long maxSize,
+                            @Value("${app.cache.owned-courses.ttl-seconds:60}") long ttlSeconds) {
+        this.ownershipRepository = ownershipRepository;
+        this.redisTemplate = redisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .buildAsync();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Get the IDs of all courses owned by a user, loading them with one query on a miss.
+     *
+     * @param userId the user ID
+     * @return owned course IDs
+     */
+    public OwnedCourseIds get(Long userId) {
+        return CacheLoads.get(cache, userId, id -> OwnedCourseIds.of(ownershipRepository.findCourseIdsByUserId(id)));
+    }
+
+    /**
+     * Invalidate a user's entry now and again after the current transaction commits,
+     * so a concurrent read cannot re-cache the pre-commit state; other nodes are told
+     * to drop theirs once the change is committed.
+     *
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        cache.synchronous().invalidate(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.synchronous().invalidate(userId);
+                    publishInvalidation(userId);
+                }
+            });
+        } else {
+            publishInvalidation(userId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+
+        try {
+            cache.synchronous().invalidate(Long.valueOf(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed owned-courses invalidation message: {}", body);
+        }
+    }
+
+    private void publishInvalidation(Long userId) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + userId);
+        } catch (Exception e) {
+            // Other nodes fall back to the cache TTL
+            logger.warn("Failed to publish owned-courses invalidation for userId={}", userId, e);
+        }
+    }
+
+    /**
+     * Immutable, compact set of owned course IDs.
+     */
+    public static final class OwnedCourseIds {
+
+        public static final OwnedCourseIds EMPTY = new OwnedCourseIds(new long[0]);
+
+        private final long[] sortedIds;
+
+        private OwnedCourseIds(long[] sortedIds) {
+            this.sortedIds = sortedIds;
+        }
+
+        static OwnedCourseIds of(Set<Long> courseIds) {
+            if (courseIds.isEmpty()) {
+                return EMPTY;
+            }
+            long[] ids = courseIds.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(ids);
+            return new OwnedCourseIds(ids);
+        }
+
+        /**
+         * Check if the course is owned.
+         */
+        public boolean contains(Long courseId) {
+            return courseId != null && Arrays.binarySearch(sortedIds, courseId) >= 0;
+        }
+
+        public int size() {
+            return sortedIds.length;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package tw.waterballsa.service;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+/**
+ * Payment provider integration.
+ *
+ * Implementations must not block the calling thread on payment I/O: {@link #submit} hands the
+ * charge off and reports the outcome later through the callback (e.g. from a webhook or an I/O
+ * thread). {@link #query} is only called from the background poller, so it may block.
+ *
+ * @author Water Ball SA
+ */
+public interface PaymentGateway {
+
+    /**
+     * Payment method stored on paid orders (e.g. "MOCK").
+     */
+    String getMethod();
+
+    /**
+     * Submit a charge without waiting for its outcome.
+     * Submitting the same order twice must not charge twice.
+     *
+     * @param request the charge to submit
+     * @param callback receives the final result (succeeded or failed), on any thread
+     */
+    void submit(PaymentRequest request, Consumer<PaymentResult> callback);
+
+    /**
+     * Query the current state of a submitted charge.
+     *
+     * @param orderId the order ID of the charge
+     * @return current result; NOT_FOUND if the gateway never received the charge
+     */
+    PaymentResult query(Long orderId);
+
+    /**
+     * Charge request for one order.
+     */
+    final class PaymentRequest {
+        private final Long orderId;
+        private final BigDecimal amount;
+
+        public PaymentRequest(Long orderId, BigDecimal amount) {
+            this.orderId = orderId;
+            this.amount = amount;
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+    }
+
+    /**
+     * State of a charge as reported by the gateway.
+     */
+    final class PaymentResult {
+
+        public enum Status {
+            PROCESSING, // Submitted, outcome not known yet
+            SUCCEEDED,  // Charged
+            FAILED,     // Declined or errored; nothing charged
+            NOT_FOUND   // The gateway has no record of the charge
+        }
+
+        private final Long orderId;
+        private final Status status;
+        private final String reason;
+
+        private PaymentResult(Long orderId, Status status, String reason) {
+            this.orderId = orderId;
+            this.status = status;
+            this.reason = reason;
+        }
+
+        public static PaymentResult processing(Long orderId) {
+            return new PaymentResult(orderId, Status.PROCESSING, null);
+        }
+
+        public static PaymentResult succeeded(Long orderId) {
+            return new PaymentResult(orderId, Status.SUCCEEDED, null);
+        }
+
+        public static PaymentResult failed(Long orderId, String reason) {
+            return new PaymentResult(orderId, Status.FAILED, reason);
+        }
+
+        public static PaymentResult notFound(Long orderId) {
+            return new PaymentResult(orderId, Status.NOT_FOUND, null);
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * Whether this result settles the order (succeeded or failed).
+         */
+        public boolean isFinal() {
+            return status == Status.SUCCEEDED || status == Status.FAILED;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package tw.waterballsa.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tw.waterballsa.model.Order;
+import tw.waterballsa.model.OrderItem;
+import tw.waterballsa.model.OutboxEvent;
+import tw.waterballsa.repository.OrderRepository;
+import tw.waterballsa.service.PaymentGateway.PaymentRequest;
+import tw.waterballsa.service.PaymentGateway.PaymentResult;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous payment pipeline for orders.
+ *
+ * Orders are created PENDING and submitted to the {@link PaymentGateway} after the creating
+ * transaction commits; the request thread never waits for payment I/O. The outcome arrives through
+ * the gateway callback, or through the poller for orders whose callback was lost:
+ * - succeeded: PENDING -> PAID, course ownership granted, PurchaseCompleted event recorded
+ * - failed or timed out: PENDING -> CANCELLED
+ *
+ * Results are applied under a row lock on the order, so callback, poller and a user's cancel
+ * cannot race; a result for an order that is no longer pending is ignored.
+ *
+ * @author Water Ball SA
+ */
+@Service
+public class PaymentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+
+    private final PaymentGateway paymentGateway;
+    private final OrderRepository orderRepository;
+    private final CourseService courseService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.payments.poll-after-seconds:30}")
+    private long pollAfterSeconds;
+
+    @Value("${app.payments.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${app.payments.poll-batch-size:100}")
+    private int pollBatchSize;
+
+    public PaymentService(PaymentGateway paymentGateway,
+                          OrderRepository orderRepository,
+                          CourseService courseService,
+                          OutboxService outboxService,
+                          PlatformTransactionManager transactionManager) {
+        this.paymentGateway = paymentGateway;
+        this.orderRepository = orderRepository;
+        this.courseService = courseService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Submit payment for a newly created pending order once the current transaction commits.
+     *
+     * @param order the saved pending order
+     */
+    public void submitAfterCommit(Order order) {
+        PaymentRequest request = new PaymentRequest(order.getOrderId(), order.getTotalAmount());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(request);
+                }
+            });
+        } else {
+            submit(request);
+        }
+    }
+
+    private void submit(PaymentRequest request) {
+        try {
+            paymentGateway.submit(request, this::handleResult);
+            logger.info("Payment submitted: orderId={}, amount={}", request.getOrderId(), request.getAmount());
+        } catch (Exception e) {
+            // The order stays pending; the poller resubmits it
+            logger.error("Failed to submit payment: orderId={}", request.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Apply a payment result reported by the gateway (callback, any thread).
+     *
+     * @param result the gateway result; non-final results are ignored
+     */
+    public void handleResult(PaymentResult result) {
+        if (!result.isFinal()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> applyResult(result));
+    }
+
+    private void applyResult(PaymentResult result) {
+        Order order = orderRepository.findByIdForUpdate(result.getOrderId()).orElse(null);
+        if (order == null) {
+            logger.warn("Payment result for unknown order: orderId={}", result.getOrderId());
+            return;
+        }
+
+        boolean succeeded = result.getStatus() == PaymentResult.Status.SUCCEEDED;
+        if (order.getPaymentStatus() != Order.PaymentStatus.PENDING) {
+            if (succeeded && order.getPaymentStatus() == Order.PaymentStatus.CANCELLED) {
+                logger.error("Payment succeeded for cancelled order, refund required: orderId={}", order.getOrderId());
+            } else {
+                logger.debug("Ignoring payment result for settled order: orderId={}, status={}",
+                        order.getOrderId(), order.getPaymentStatus());
+            }
+            return;
+        }
+
+        if (!succeeded) {
+            order.cancel();
+            logger.info("Payment failed, order cancelled: orderId={}, reason={}",
+                    order.getOrderId(), result.getReason());
+            return;
+        }
+
+        order.markAsPaid(paymentGateway.getMethod());
+        for (OrderItem item : order.getOrderItems()) {
+            courseService.grantCourseOwnership(order.getUser(), item.getCourse());
+        }
+        logger.info("Payment completed: orderId={}, userId={}", order.getOrderId(), order.getUser().getUserId());
+
+        // Follow-up work (notifications, analytics, ...) hangs off this event, not this transaction
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("orderId", order.getOrderId());
+        event.put("userId", order.getUser().getUserId());
+        event.put("courseIds", order.getOrderItems().stream()
+                .map(item -> item.getCourse().getCourseId())
+                .collect(Collectors.toList()));
+        event.put("totalAmount", order.getTotalAmount());
+        event.put("paymentMethod", order.getPaymentMethod());
+        outboxService.record(OutboxEvent.PURCHASE_COMPLETED, order.getOrderId(), event);
+    }
+
+    /**
+     * Settle orders that stayed pending longer than app.payments.poll-after-seconds.
+     * Queries the gateway for each: final results are applied, charges the gateway never received
+     * are resubmitted, and orders still pending after app.payments.timeout-minutes are cancelled.
+     */
+    @Scheduled(fixedDelayString = "${app.payments.poll-interval-ms:10000}")
+    public void pollPendingPayments() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expireBefore = now.minusMinutes(timeoutMinutes);
+        List<Order> pending = orderRepository.findPendingCreatedBefore(
+                now.minusSeconds(pollAfterSeconds), PageRequest.of(0, pollBatchSize));
+
+        for (Order order : pending) {
+            try {
+                PaymentResult result = paymentGateway.query(order.getOrderId());
+                if (result.isFinal()) {
+                    handleResult(result);
+                } else if (order.getCreatedAt().isBefore(expireBefore)) {
+                    handleResult(PaymentResult.failed(order.getOrderId(), "timed out"));
+                } else if (result.getStatus() == PaymentResult.Status.NOT_FOUND) {
+                    submit(new PaymentRequest(order.getOrderId(), order.getTotalAmount()));
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to poll payment: orderId={}", order.getOrderId(), e);
+            }
+        }
+    }
+}
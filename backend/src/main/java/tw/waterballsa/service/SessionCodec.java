@@ -0,0 +1,128 @@
+package tw.waterballsa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import tw.waterballsa.dto.SessionInfoResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary codec for sessions stored in Redis.
+ *
+ * Format v1 (big-endian, strings as modified UTF-8 with a 2-byte length):
+ * <pre>
+ * byte    version (1)
+ * long    userId
+ * string? nickname
+ * string? email
+ * int     level
+ * int     exp
+ * string? role
+ * short   provider count, then one string per provider
+ * </pre>
+ * "string?" is a presence byte followed by the string. exp_for_next_level and
+ * exp_progress_percentage are not stored; they are derived from level and exp on decode.
+ *
+ * Entries written before this codec are JSON text (first byte '{') and are still decoded;
+ * they are replaced by the binary form the next time the session is stored.
+ *
+ * @author Water Ball SA
+ */
+@Component
+public class SessionCodec {
+
+    static final byte VERSION_1 = 1;
+
+    private static final byte LEGACY_JSON_START = '{';
+
+    private final ObjectMapper objectMapper;
+
+    public SessionCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Encode a session in the current binary format.
+     */
+    public byte[] encode(SessionInfoResponse session) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION_1);
+            out.writeLong(session.getUserId());
+            writeNullableString(out, session.getNickname());
+            writeNullableString(out, session.getEmail());
+            out.writeInt(session.getLevel() != null ? session.getLevel() : 1);
+            out.writeInt(session.getExp() != null ? session.getExp() : 0);
+            writeNullableString(out, session.getRole());
+
+            List<String> providers = session.getOauthProviders() != null ? session.getOauthProviders() : List.of();
+            out.writeShort(providers.size());
+            for (String provider : providers) {
+                out.writeUTF(provider);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode session", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a session written in any supported format.
+     *
+     * @throws IllegalArgumentException if the payload is empty, truncated or of an unknown version
+     */
+    public SessionInfoResponse decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Empty session payload");
+        }
+
+        try {
+            if (data[0] == LEGACY_JSON_START) {
+                return objectMapper.readValue(data, SessionInfoResponse.class);
+            }
+            if (data[0] == VERSION_1) {
+                return decodeV1(data);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed session payload", e);
+        }
+        throw new IllegalArgumentException("Unknown session format version: " + data[0]);
+    }
+
+    private SessionInfoResponse decodeV1(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 1, data.length - 1))) {
+            long userId = in.readLong();
+            String nickname = readNullableString(in);
+            String email = readNullableString(in);
+            int level = in.readInt();
+            int exp = in.readInt();
+            String role = readNullableString(in);
+
+            int providerCount = in.readUnsignedShort();
+            List<String> providers = new ArrayList<>(providerCount);
+            for (int i = 0; i < providerCount; i++) {
+                providers.add(in.readUTF());
+            }
+
+            return new SessionInfoResponse(userId, nickname, email, level, exp, role, providers);
+        }
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
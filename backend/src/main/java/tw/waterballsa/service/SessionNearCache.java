@@ -0,0 +1,112 @@
+package tw.waterballsa.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import tw.waterballsa.dto.SessionInfoResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * In-process near-cache in front of the Redis session store.
+ *
+ * Entries live for a few seconds only. When a node stores or deletes a session it
+ * publishes the user ID on a Redis channel, and every other node drops its copy,
+ * so polling /auth/session is served from memory without serving stale data for long.
+ * A lost pub/sub message is bounded by the TTL.
+ *
+ * @author Water Ball SA
+ */
+@Component
+public class SessionNearCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionNearCache.class);
+
+    static final String INVALIDATION_CHANNEL = "session:invalidate";
+
+    /**
+     * Identifies this JVM so it can ignore its own invalidation messages.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<Long, SessionInfoResponse> cache;
+
+    public SessionNearCache(StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${app.session.near-cache.max-size:10000}") long maxSize,
+                            @Value("${app.session.near-cache.ttl-seconds:10}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Get the locally cached session, or null on a miss.
+     */
+    public SessionInfoResponse get(Long userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /**
+     * Cache a session read from (or just written to) Redis on this node only.
+     */
+    public void put(Long userId, SessionInfoResponse session) {
+        cache.put(userId, session);
+    }
+
+    /**
+     * Replace this node's copy and tell other nodes to drop theirs.
+     * Call after the session was written to Redis.
+     */
+    public void update(Long userId, SessionInfoResponse session) {
+        cache.put(userId, session);
+        publishInvalidation(userId);
+    }
+
+    /**
+     * Drop the session on every node.
+     * Call after the session was deleted from Redis.
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        publishInvalidation(userId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+
+        try {
+            cache.invalidate(Long.valueOf(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed session invalidation message: {}", body);
+        }
+    }
+
+    private void publishInvalidation(Long userId) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + userId);
+        } catch (Exception e) {
+            // Other nodes fall back to the near-cache TTL
+            logger.warn("Failed to publish session invalidation for userId={}", userId, e);
+        }
+    }
+}
@@ -3,18 +3,30 @@ package tw.waterballsa.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tw.waterballsa.dto.CursorPageResponse;
 import tw.waterballsa.dto.UserListResponse;
 import tw.waterballsa.exception.ResourceNotFoundException;
 import tw.waterballsa.model.User;
 import tw.waterballsa.model.UserRole;
 import tw.waterballsa.repository.OAuthProviderLinkRepository;
+import tw.waterballsa.repository.OAuthProviderLinkRepository.ProviderTypeView;
 import tw.waterballsa.repository.UserRepository;
+import tw.waterballsa.security.VerifiedTokenCache;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -28,24 +40,57 @@ public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    /**
+     * Max user IDs per provider IN query (well below PostgreSQL's bind parameter limit).
+     */
+    private static final int PROVIDER_LOOKUP_BATCH_SIZE = 1000;
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private OAuthProviderLinkRepository oauthProviderLinkRepository;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Value("${app.admin.user-export.batch-size:500}")
+    private int exportBatchSize;
+
     /**
-     * Get all users with their roles and OAuth providers.
+     * Walk all users in keyset batches (ascending user ID) and hand each mapped batch to a consumer.
+     * Only one batch is held in memory at a time, so exports stay flat regardless of table size.
      *
-     * @return list of user responses
+     * @param batchConsumer receives each batch in order; may write it straight to a response stream
+     * @return number of users exported
      */
-    public List<UserListResponse> getAllUsers() {
-        logger.info("Fetching all users");
-        List<User> users = userRepository.findAll();
+    public long forEachUserBatch(Consumer<List<UserListResponse>> batchConsumer) {
+        logger.info("Exporting all users in batches of {}", exportBatchSize);
+        long exported = 0;
+        long lastUserId = 0;
 
-        return users.stream()
-                .map(this::mapToUserListResponse)
-                .collect(Collectors.toList());
+        while (true) {
+            List<User> users = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(
+                    lastUserId, PageRequest.of(0, exportBatchSize));
+            if (users.isEmpty()) {
+                break;
+            }
+
+            Map<Long, List<String>> providersByUser = findProvidersByUserIds(
+                    users.stream().map(User::getUserId).collect(Collectors.toList()));
+            batchConsumer.accept(users.stream()
+                    .map(user -> mapToUserListResponse(user, providersByUser))
+                    .collect(Collectors.toList()));
+
+            exported += users.size();
+            lastUserId = users.get(users.size() - 1).getUserId();
+            if (users.size() < exportBatchSize) {
+                break;
+            }
+        }
+        return exported;
     }
 
     /**
@@ -59,7 +104,109 @@ public class UserService {
                    pageable.getPageNumber(), pageable.getPageSize());
         Page<User> users = userRepository.findAll(pageable);
 
-        return users.map(this::mapToUserListResponse);
+        // One IN query for the whole page instead of one lookup per user
+        Map<Long, List<String>> providersByUser = findProvidersByUserIds(
+                users.map(User::getUserId).getContent());
+
+        return users.map(user -> mapToUserListResponse(user, providersByUser));
+    }
+
+    /**
+     * Get one page of users with keyset pagination on user_id DESC.
+     *
+     * Every page is a seek on the primary key (no OFFSET, no COUNT(*)), so deep pages
+     * cost the same as the first one.
+     *
+     * @param cursor opaque cursor from a previous page, or null for the first page
+     * @param size page size
+     * @param includeEstimatedTotal whether to add the pg_class.reltuples estimate
+     * @return page of user responses with next/prev cursors
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageResponse<UserListResponse> getUsersByCursor(String cursor, int size,
+                                                                 boolean includeEstimatedTotal) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        UserCursor position = UserCursor.decode(cursor);
+        logger.info("Fetching users with cursor: cursor={}, size={}", position, pageSize);
+
+        // Fetch one extra row to know whether another page exists in the walking direction
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        long anchor = position.getUserId();
+        List<User> users;
+        if (position.isBackward()) {
+            users = new ArrayList<>(userRepository.findByUserIdGreaterThanOrderByUserIdAsc(anchor, limit));
+        } else {
+            users = new ArrayList<>(userRepository.findByUserIdLessThanOrderByUserIdDesc(anchor, limit));
+        }
+
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users.remove(users.size() - 1);
+        }
+        if (position.isBackward()) {
+            Collections.reverse(users);
+        }
+
+        boolean hasNext = position.isBackward() ? position.isPresent() : hasMore;
+        boolean hasPrev = position.isBackward() ? hasMore : position.isPresent();
+        String nextCursor = hasNext && !users.isEmpty()
+                ? UserCursor.after(users.get(users.size() - 1).getUserId()).encode() : null;
+        String prevCursor = hasPrev && !users.isEmpty()
+                ? UserCursor.before(users.get(0).getUserId()).encode() : null;
+
+        Map<Long, List<String>> providersByUser = findProvidersByUserIds(
+                users.stream().map(User::getUserId).collect(Collectors.toList()));
+        List<UserListResponse> items = users.stream()
+                .map(user -> mapToUserListResponse(user, providersByUser))
+                .collect(Collectors.toList());
+
+        Long estimatedTotal = null;
+        if (includeEstimatedTotal) {
+            long estimate = userRepository.estimateCount();
+            estimatedTotal = estimate >= 0 ? estimate : null;
+        }
+
+        return new CursorPageResponse<>(items, pageSize, nextCursor, prevCursor, estimatedTotal);
+    }
+
+    /**
+     * Search users by exact email or nickname prefix.
+     *
+     * A query containing '@' is treated as an email and matched through email_hash,
+     * so no encrypted email is ever decrypted to search. Anything else is a case-insensitive
+     * nickname prefix served by an index. Only the matched users are decrypted for the response.
+     *
+     * @param query email or nickname prefix
+     * @param limit max number of results
+     * @return matching users
+     */
+    public List<UserListResponse> searchUsers(String query, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty()) {
+            return List.of();
+        }
+
+        List<User> users;
+        if (trimmed.contains("@")) {
+            logger.info("Searching users by email hash");
+            users = userRepository.findByEmailHash(User.computeEmailHash(trimmed))
+                    .map(List::of)
+                    .orElse(List.of());
+        } else {
+            logger.info("Searching users by nickname prefix: prefix={}", trimmed);
+            String prefix = trimmed.toLowerCase()
+                    .replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_") + "%";
+            int pageSize = Math.min(Math.max(limit, 1), MAX_CURSOR_PAGE_SIZE);
+            users = userRepository.findByNicknamePrefix(prefix, PageRequest.of(0, pageSize));
+        }
+
+        Map<Long, List<String>> providersByUser = findProvidersByUserIds(
+                users.stream().map(User::getUserId).collect(Collectors.toList()));
+        return users.stream()
+                .map(user -> mapToUserListResponse(user, providersByUser))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -96,6 +243,9 @@ public class UserService {
         user.setRole(newRole);
         User updatedUser = userRepository.save(user);
 
+        // Tokens carrying the old role must not be accepted any more
+        verifiedTokenCache.revokeUser(userId);
+
         logger.info("Successfully updated role for userId={} from {} to {}",
                    userId, oldRole, newRole);
 
@@ -106,11 +256,14 @@ public class UserService {
      * Map User entity to UserListResponse DTO.
      */
     private UserListResponse mapToUserListResponse(User user) {
-        List<String> oauthProviders = oauthProviderLinkRepository
-                .findByUser_UserId(user.getUserId())
-                .stream()
-                .map(link -> link.getProviderType().getValue())
-                .collect(Collectors.toList());
+        return mapToUserListResponse(user, findProvidersByUserIds(List.of(user.getUserId())));
+    }
+
+    /**
+     * Map User entity to UserListResponse DTO using preloaded provider names.
+     */
+    private UserListResponse mapToUserListResponse(User user, Map<Long, List<String>> providersByUser) {
+        List<String> oauthProviders = providersByUser.getOrDefault(user.getUserId(), List.of());
 
         return new UserListResponse(
                 user.getUserId(),
@@ -122,4 +275,85 @@ public class UserService {
                 oauthProviders
         );
     }
+
+    /**
+     * Load provider names for a batch of users, grouped by user ID.
+     * Runs one IN query per PROVIDER_LOOKUP_BATCH_SIZE users (a single query for any page).
+     */
+    private Map<Long, List<String>> findProvidersByUserIds(List<Long> userIds) {
+        Map<Long, List<String>> providersByUser = new HashMap<>();
+
+        for (int from = 0; from < userIds.size(); from += PROVIDER_LOOKUP_BATCH_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + PROVIDER_LOOKUP_BATCH_SIZE, userIds.size()));
+            for (ProviderTypeView view : oauthProviderLinkRepository.findProviderTypesByUserIds(chunk)) {
+                providersByUser.computeIfAbsent(view.getUserId(), id -> new ArrayList<>())
+                        .add(view.getProviderType().getValue());
+            }
+        }
+        return providersByUser;
+    }
+
+    /**
+     * Position in the user_id DESC ordering, encoded as an opaque URL-safe cursor.
+     * "n:{id}" walks forward (older users, id < {id}); "p:{id}" walks backward (id > {id}).
+     */
+    private static final class UserCursor {
+
+        private static final UserCursor FIRST = new UserCursor(false, Long.MAX_VALUE, false);
+
+        private final boolean backward;
+        private final long userId;
+        private final boolean present;
+
+        private UserCursor(boolean backward, long userId, boolean present) {
+            this.backward = backward;
+            this.userId = userId;
+            this.present = present;
+        }
+
+        static UserCursor after(long userId) {
+            return new UserCursor(false, userId, true);
+        }
+
+        static UserCursor before(long userId) {
+            return new UserCursor(true, userId, true);
+        }
+
+        static UserCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return FIRST;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                if (raw.length() > 2 && raw.charAt(1) == ':' && (raw.charAt(0) == 'n' || raw.charAt(0) == 'p')) {
+                    return new UserCursor(raw.charAt(0) == 'p', Long.parseLong(raw.substring(2)), true);
+                }
+            } catch (IllegalArgumentException e) {
+                // Falls through to the error below (NumberFormatException is an IllegalArgumentException)
+            }
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        String encode() {
+            String raw = (backward ? "p:" : "n:") + userId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        boolean isBackward() {
+            return backward;
+        }
+
+        long getUserId() {
+            return userId;
+        }
+
+        boolean isPresent() {
+            return present;
+        }
+
+        @Override
+        public String toString() {
+            return present ? (backward ? "before " : "after ") + userId : "first";
+        }
+    }
 }
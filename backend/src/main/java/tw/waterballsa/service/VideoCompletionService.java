@@ -1,15 +1,19 @@
 package tw.waterballsa.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import tw.waterballsa.model.User;
-import tw.waterballsa.model.Video;
+import tw.waterballsa.model.OutboxEvent;
 import tw.waterballsa.model.VideoCompletion;
-import tw.waterballsa.repository.UserRepository;
 import tw.waterballsa.repository.VideoCompletionRepository;
-import tw.waterballsa.repository.VideoRepository;
+import tw.waterballsa.repository.VideoCompletionRepositoryCustom.CompletionOutcome;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Service for handling video completion logic and exp rewards.
@@ -23,15 +27,19 @@ public class VideoCompletionService {
     private static final Logger logger = LoggerFactory.getLogger(VideoCompletionService.class);
 
     private final VideoCompletionRepository videoCompletionRepository;
-    private final VideoRepository videoRepository;
-    private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final MeterRegistry meterRegistry;
+    private final Counter expAwarded;
 
     public VideoCompletionService(VideoCompletionRepository videoCompletionRepository,
-                                   VideoRepository videoRepository,
-                                   UserRepository userRepository) {
+                                   OutboxService outboxService,
+                                   MeterRegistry meterRegistry) {
         this.videoCompletionRepository = videoCompletionRepository;
-        this.videoRepository = videoRepository;
-        this.userRepository = userRepository;
+        this.outboxService = outboxService;
+        this.meterRegistry = meterRegistry;
+        this.expAwarded = Counter.builder("app.video.completion.exp")
+                .description("Exp awarded by video completions")
+                .register(meterRegistry);
     }
 
     /**
@@ -39,47 +47,55 @@ public class VideoCompletionService {
      * This operation is idempotent - if the user already completed this video,
      * no additional exp is awarded and the existing completion is returned.
      *
+     * The completion insert and the exp increment are one atomic statement
+     * (at most two statements in total), so concurrent requests cannot double-award exp.
+     * Timed as app.video.completion{outcome=awarded|already_completed|error}.
+     *
      * @param userId the user ID who completed the video
      * @param videoId the video ID that was completed
-     * @return VideoCompletion record (existing or newly created)
-     * @throws IllegalArgumentException if user or video doesn't exist
+     * @return completion outcome (existing or newly created) with the user's exp and level
+     * @throws IllegalArgumentException if the video doesn't exist
      */
     @Transactional
-    public VideoCompletion completeVideo(Long userId, Long videoId) {
-        logger.info("Processing video completion: userId={}, videoId={}", userId, videoId);
-
-        // Check if already completed (idempotency)
-        if (videoCompletionRepository.existsByUserUserIdAndVideoVideoId(userId, videoId)) {
-            logger.info("Video already completed by user: userId={}, videoId={}", userId, videoId);
-            return videoCompletionRepository.findByUserUserIdAndVideoVideoId(userId, videoId)
-                    .orElseThrow(() -> new IllegalStateException("Video completion exists but couldn't be retrieved"));
+    public CompletionOutcome completeVideo(Long userId, Long videoId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            CompletionOutcome completion = complete(userId, videoId);
+            outcome = completion.isAlreadyCompleted() ? "already_completed" : "awarded";
+            return completion;
+        } finally {
+            sample.stop(meterRegistry.timer("app.video.completion", "outcome", outcome));
         }
+    }
 
-        // Fetch user and video
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+    private CompletionOutcome complete(Long userId, Long videoId) {
+        logger.info("Processing video completion: userId={}, videoId={}", userId, videoId);
 
-        Video video = videoRepository.findById(videoId)
+        CompletionOutcome outcome = videoCompletionRepository.completeAndAwardExp(userId, videoId)
                 .orElseThrow(() -> new IllegalArgumentException("Video not found: " + videoId));
 
-        // Award exp to user (demo videos don't award exp)
-        int expAwarded = video.getIsDemo() ? 0 : video.getExpReward();
-        boolean leveledUp = false;
-
-        if (expAwarded > 0) {
-            leveledUp = user.addExp(expAwarded);
-            // Save user with updated exp
-            userRepository.save(user);
+        if (outcome.isAlreadyCompleted()) {
+            logger.info("Video already completed by user: userId={}, videoId={}", userId, videoId);
+        } else {
+            logger.info("Video completed successfully: userId={}, videoId={}, expAwarded={}, leveledUp={}",
+                    userId, videoId, outcome.getExpAwarded(), outcome.isLeveledUp());
+            expAwarded.increment(outcome.getExpAwarded());
+
+            // Leaderboards are updated from this event (see LeaderboardService)
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("completionId", outcome.getCompletionId());
+            event.put("userId", userId);
+            event.put("videoId", videoId);
+            event.put("courseId", outcome.getCourseId());
+            event.put("expAwarded", outcome.getExpAwarded());
+            event.put("exp", outcome.getExp());
+            event.put("level", outcome.getLevel());
+            event.put("leveledUp", outcome.isLeveledUp());
+            outboxService.record(OutboxEvent.VIDEO_COMPLETED, outcome.getCompletionId(), event);
         }
 
-        // Create completion record
-        VideoCompletion completion = new VideoCompletion(user, video, expAwarded);
-        VideoCompletion savedCompletion = videoCompletionRepository.save(completion);
-
-        logger.info("Video completed successfully: userId={}, videoId={}, expAwarded={}, leveledUp={}",
-                userId, videoId, expAwarded, leveledUp);
-
-        return savedCompletion;
+        return outcome;
     }
 
     /**
@@ -0,0 +1,219 @@
+package tw.waterballsa.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tw.waterballsa.model.UserVideoProgress;
+import tw.waterballsa.repository.UserVideoProgressRepository;
+import tw.waterballsa.repository.UserVideoProgressRepositoryCustom.ProgressRow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for video progress heartbeats.
+ *
+ * Heartbeats are collapsed per (userId, videoId) in memory - only the latest position is kept -
+ * and flushed to user_video_progress on a fixed schedule as batched upserts.
+ * A batch failing on a transient database error is put back for the next flush (a newer heartbeat
+ * wins); any other failure is retried row by row, so only the rows that fail themselves
+ * (e.g. a deleted user or video) are dropped.
+ *
+ * @author Water Ball SA
+ */
+@Component
+public class VideoProgressBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoProgressBuffer.class);
+
+    private final Map<ProgressKey, ProgressRow> pending = new ConcurrentHashMap<>();
+
+    // Not synchronized: a virtual thread blocked on JDBC inside a monitor would pin its carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final UserVideoProgressRepository progressRepository;
+    private final int batchSize;
+
+    public VideoProgressBuffer(UserVideoProgressRepository progressRepository,
+                               @Value("${app.video-progress.write-behind.batch-size:500}") int batchSize) {
+        this.progressRepository = progressRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Buffer the latest progress for a user and video, replacing any pending heartbeat.
+     *
+     * @param userId the user ID
+     * @param videoId the video ID
+     * @param progress transient progress holding the computed position and percentage
+     */
+    public void put(Long userId, Long videoId, UserVideoProgress progress) {
+        pending.put(new ProgressKey(userId, videoId), new ProgressRow(
+                userId,
+                videoId,
+                progress.getLastPositionSeconds(),
+                progress.getWatchPercentage(),
+                progress.getUpdatedAt()
+        ));
+    }
+
+    /**
+     * Get the pending (not yet flushed) progress for a user and video.
+     *
+     * @param userId the user ID
+     * @param videoId the video ID
+     * @return transient progress, or empty if nothing is buffered
+     */
+    public Optional<UserVideoProgress> get(Long userId, Long videoId) {
+        return Optional.ofNullable(pending.get(new ProgressKey(userId, videoId)))
+                .map(VideoProgressBuffer::toProgress);
+    }
+
+    /**
+     * Drop the pending progress for a user and video without writing it.
+     */
+    public void discard(Long userId, Long videoId) {
+        pending.remove(new ProgressKey(userId, videoId));
+    }
+
+    /**
+     * Get number of heartbeats waiting to be flushed.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Flush all pending progress to the database in batches.
+     * Runs on a fixed delay and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${app.video-progress.write-behind.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushPending() {
+        List<ProgressRow> batch = new ArrayList<>(batchSize);
+        int flushed = 0;
+
+        for (ProgressKey key : pending.keySet()) {
+            // remove() hands over ownership; a heartbeat arriving later is kept for the next flush
+            ProgressRow entry = pending.remove(key);
+            if (entry == null) {
+                continue;
+            }
+            batch.add(entry);
+
+            if (batch.size() >= batchSize) {
+                flushed += writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            flushed += writeBatch(batch);
+        }
+
+        logger.debug("Flushed buffered video progress: rows={}", flushed);
+    }
+
+    /**
+     * Write one batch as a single JDBC batch upsert.
+     * A transient failure re-queues the batch; any other failure falls back to row-by-row writes.
+     *
+     * @return number of rows written
+     */
+    private int writeBatch(List<ProgressRow> batch) {
+        try {
+            return progressRepository.upsertAll(batch);
+        } catch (TransientDataAccessException | RecoverableDataAccessException
+                 | DataAccessResourceFailureException e) {
+            logger.warn("Video progress batch failed transiently, re-queued: size={}", batch.size(), e);
+            batch.forEach(this::requeue);
+            return 0;
+        } catch (Exception e) {
+            logger.warn("Video progress batch failed, retrying row by row: size={}", batch.size(), e);
+            return writeRows(batch);
+        }
+    }
+
+    private int writeRows(List<ProgressRow> rows) {
+        int written = 0;
+        for (ProgressRow row : rows) {
+            try {
+                written += progressRepository.upsertAll(List.of(row));
+            } catch (Exception e) {
+                logger.error("Dropping video progress row: userId={}, videoId={}",
+                        row.getUserId(), row.getVideoId(), e);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Put a failed row back unless a newer heartbeat for the same slot arrived meanwhile.
+     */
+    private void requeue(ProgressRow row) {
+        pending.merge(new ProgressKey(row.getUserId(), row.getVideoId()), row,
+                (current, failed) -> failed.getUpdatedAt().isAfter(current.getUpdatedAt()) ? failed : current);
+    }
+
+    private static UserVideoProgress toProgress(ProgressRow row) {
+        UserVideoProgress progress = new UserVideoProgress();
+        progress.setLastPositionSeconds(row.getLastPositionSeconds());
+        progress.setWatchPercentage(row.getWatchPercentage());
+        progress.setUpdatedAt(row.getUpdatedAt());
+        return progress;
+    }
+
+    /**
+     * Buffer key: one slot per (userId, videoId).
+     */
+    private static final class ProgressKey {
+        private final Long userId;
+        private final Long videoId;
+
+        private ProgressKey(Long userId, Long videoId) {
+            this.userId = userId;
+            this.videoId = videoId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ProgressKey)) {
+                return false;
+            }
+            ProgressKey that = (ProgressKey) o;
+            return userId.equals(that.userId) && videoId.equals(that.videoId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, videoId);
+        }
+    }
+}
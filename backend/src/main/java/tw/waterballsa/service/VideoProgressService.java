@@ -1,15 +1,23 @@
 package tw.waterballsa.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tw.waterballsa.model.User;
 import tw.waterballsa.model.UserVideoProgress;
 import tw.waterballsa.model.Video;
 import tw.waterballsa.repository.UserRepository;
 import tw.waterballsa.repository.UserVideoProgressRepository;
+import tw.waterballsa.repository.UserVideoProgressRepositoryCustom.ProgressRow;
 import tw.waterballsa.repository.VideoRepository;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,43 +35,109 @@ public class VideoProgressService {
     private UserVideoProgressRepository progressRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private VideoRepository videoRepository;
 
     @Autowired
-    private VideoRepository videoRepository;
+    private UserRepository userRepository;
 
     @Autowired
     private VideoCompletionService videoCompletionService;
 
+    @Autowired
+    private VideoProgressBuffer progressBuffer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * When enabled, heartbeats are collapsed in {@link VideoProgressBuffer} and flushed on a schedule
+     * instead of being written to the database on every call.
+     */
+    @Value("${app.video-progress.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+
+    @Value("${app.cache.video-durations.max-size:10000}")
+    private long videoDurationsMaxSize;
+
+    @Value("${app.cache.video-durations.ttl-seconds:300}")
+    private long videoDurationsTtlSeconds;
+
+    /**
+     * Video durations used to compute watch percentage without loading the video
+     * on every heartbeat. Bounded, and expired so an edited duration is picked up.
+     */
+    private AsyncCache<Long, Integer> videoDurations;
+
+    @PostConstruct
+    void init() {
+        this.videoDurations = Caffeine.newBuilder()
+                .maximumSize(videoDurationsMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(videoDurationsTtlSeconds))
+                .buildAsync();
+    }
+
     /**
      * Save or update video watch progress.
      * Automatically completes video if watch percentage >= 95%.
      *
+     * The write is a single INSERT ... ON CONFLICT statement with no read first (an unknown user is
+     * reported by its foreign key), or an in-memory buffer update when write-behind mode is enabled
+     * (the user is checked when a video's first heartbeat since the last flush is buffered).
+     * Timed as app.video.progress.save{mode=direct|write_behind, outcome=success|error}.
+     *
      * @param userId current position in seconds
      * @param videoId the video ID
      * @param currentPositionSeconds current playback position in seconds
      * @return the updated progress
+     * @throws IllegalArgumentException if the user or video doesn't exist
      */
     @Transactional
     public UserVideoProgress saveProgress(Long userId, Long videoId, int currentPositionSeconds) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("找不到使用者"));
-
-        Video video = videoRepository.findById(videoId)
-                .orElseThrow(() -> new IllegalArgumentException("找不到影片"));
-
-        // Find or create progress
-        UserVideoProgress progress = progressRepository
-                .findByUser_UserIdAndVideo_VideoId(userId, videoId)
-                .orElse(new UserVideoProgress(user, video));
-
-        // Update progress
-        progress.updateProgress(currentPositionSeconds, video.getDurationSeconds());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            UserVideoProgress progress = writeProgress(userId, videoId, currentPositionSeconds);
+            outcome = "success";
+            return progress;
+        } finally {
+            sample.stop(meterRegistry.timer("app.video.progress.save",
+                    "mode", writeBehindEnabled ? "write_behind" : "direct",
+                    "outcome", outcome));
+        }
+    }
 
-        // Save progress
-        progress = progressRepository.save(progress);
+    private UserVideoProgress writeProgress(Long userId, Long videoId, int currentPositionSeconds) {
+        int durationSeconds = CacheLoads.get(videoDurations, videoId, id -> videoRepository.findById(id)
+                .map(Video::getDurationSeconds)
+                .orElseThrow(() -> new IllegalArgumentException("找不到影片")));
+
+        // Compute progress in memory
+        UserVideoProgress progress = new UserVideoProgress();
+        progress.updateProgress(currentPositionSeconds, durationSeconds);
+
+        if (writeBehindEnabled) {
+            // Rows of unknown users would only fail at flush time, after the client was told they were saved
+            if (progressBuffer.get(userId, videoId).isEmpty() && !userRepository.existsById(userId)) {
+                throw new IllegalArgumentException("找不到使用者");
+            }
+            // Collapsed with other heartbeats and flushed on a schedule
+            progressBuffer.put(userId, videoId, progress);
+        } else {
+            try {
+                progressRepository.upsertAll(List.of(new ProgressRow(
+                        userId,
+                        videoId,
+                        progress.getLastPositionSeconds(),
+                        progress.getWatchPercentage(),
+                        progress.getUpdatedAt()
+                )));
+            } catch (DataIntegrityViolationException e) {
+                // The video was loaded above, so the user foreign key failed
+                throw new IllegalArgumentException("找不到使用者", e);
+            }
+        }
 
-        // Auto-complete video if >= 95%
+        // Auto-complete video if >= 95% (runs immediately, even in write-behind mode)
         if (progress.isCompleted()) {
             videoCompletionService.completeVideo(userId, videoId);
         }
@@ -79,30 +153,13 @@ public class VideoProgressService {
      * @return the progress, or empty if not found
      */
     public Optional<UserVideoProgress> getProgress(Long userId, Long videoId) {
+        Optional<UserVideoProgress> buffered = progressBuffer.get(userId, videoId);
+        if (buffered.isPresent()) {
+            return buffered;
+        }
         return progressRepository.findByUser_UserIdAndVideo_VideoId(userId, videoId);
     }
 
-    /**
-     * Get all video progress for a user in a course.
-     *
-     * @param userId the user ID
-     * @param courseId the course ID
-     * @return list of progress
-     */
-    public List<UserVideoProgress> getCourseProgress(Long userId, Long courseId) {
-        return progressRepository.findByUserIdAndCourseId(userId, courseId);
-    }
-
-    /**
-     * Get all video progress for a user.
-     *
-     * @param userId the user ID
-     * @return list of all progress
-     */
-    public List<UserVideoProgress> getAllProgress(Long userId) {
-        return progressRepository.findByUser_UserId(userId);
-    }
-
     /**
      * Delete progress for a video.
      *
@@ -111,6 +168,7 @@ public class VideoProgressService {
      */
     @Transactional
     public void deleteProgress(Long userId, Long videoId) {
+        progressBuffer.discard(userId, videoId);
         progressRepository.deleteByUser_UserIdAndVideo_VideoId(userId, videoId);
     }
 
@@ -122,7 +180,7 @@ public class VideoProgressService {
      * @return the last position in seconds, or 0 if no progress
      */
     public int getResumePosition(Long userId, Long videoId) {
-        return progressRepository.findByUser_UserIdAndVideo_VideoId(userId, videoId)
+        return getProgress(userId, videoId)
                 .map(UserVideoProgress::getLastPositionSeconds)
                 .orElse(0);
     }
@@ -0,0 +1,7 @@
+-- Support admin user search by nickname prefix
+-- Emails are encrypted and searched by exact email_hash only (idx_user_email_hash)
+
+-- text_pattern_ops lets LIKE 'prefix%' use the index regardless of the database collation
+CREATE INDEX IF NOT EXISTS idx_user_nickname_lower_prefix ON users (lower(nickname) text_pattern_ops);
+
+COMMENT ON INDEX idx_user_nickname_lower_prefix IS 'Case-insensitive nickname prefix search for admins';
@@ -0,0 +1,22 @@
+-- Store responses of purchases submitted with an Idempotency-Key header
+-- A retried or double-submitted purchase replays the stored response instead of creating another order
+
+CREATE TABLE purchase_idempotency_keys (
+    idempotency_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    course_id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    response_body TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_purchase_idempotency_user FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+    CONSTRAINT uq_purchase_idempotency_key UNIQUE (user_id, idempotency_key)
+);
+
+-- Create index on created_at for expiring old keys
+CREATE INDEX idx_purchase_idempotency_created_at ON purchase_idempotency_keys(created_at);
+
+-- Add comments
+COMMENT ON TABLE purchase_idempotency_keys IS 'Idempotency keys for POST /api/orders/purchase with the stored OrderResponse';
+COMMENT ON COLUMN purchase_idempotency_keys.response_body IS 'OrderResponse JSON returned for the first submission';
@@ -0,0 +1,24 @@
+-- Transactional outbox for domain events
+-- Rows are written in the same transaction as the change they describe and relayed asynchronously
+
+CREATE TABLE outbox_events (
+    event_id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(500)
+);
+
+-- Create partial index for the relay: only unpublished rows are scanned
+CREATE INDEX idx_outbox_events_unpublished ON outbox_events(event_id) WHERE published_at IS NULL;
+
+-- Create index on published_at for purging relayed rows
+CREATE INDEX idx_outbox_events_published_at ON outbox_events(published_at) WHERE published_at IS NOT NULL;
+
+-- Add comments
+COMMENT ON TABLE outbox_events IS 'Domain events (purchases, video completions) waiting for or already relayed to listeners';
+COMMENT ON COLUMN outbox_events.payload IS 'Event payload as JSON';
+COMMENT ON COLUMN outbox_events.attempts IS 'Failed delivery attempts; rows reaching app.outbox.max-attempts are no longer relayed';
@@ -1,6 +1,6 @@
 'use client';
 
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { useParams, useRouter } from 'next/navigation';
 import Image from 'next/image';
 import api from '@/lib/api';
@@ -59,6 +59,8 @@ export default function CourseDetailPage() {
   const [expandedDungeons, setExpandedDungeons] = useState<Set<number>>(new Set([0]));
   const [purchasing, setPurchasing] = useState(false);
   const [purchaseError, setPurchaseError] = useState<string | null>(null);
+  // Idempotency-Key of the current checkout attempt, reused when the request is retried
+  const purchaseKey = useRef<string | null>(null);
 
   useEffect(() => {
     const fetchCourseDetail = async () => {
@@ -89,10 +91,15 @@ export default function CourseDetailPage() {
       setPurchasing(true);
       setPurchaseError(null);
 
-      await api.post(`/api/orders/purchase?courseId=${courseId}`);
+      if (!purchaseKey.current) {
+        purchaseKey.current = crypto.randomUUID();
+      }
+      const response = await api.post(`/api/orders/purchase?courseId=${courseId}`, null, {
+        headers: { 'Idempotency-Key': purchaseKey.current },
+      });
 
-      // Redirect to order confirmation or course page
-      router.push(`/orders/confirmation?courseId=${courseId}`);
+      // Redirect to order confirmation (waits there until the payment is settled)
+      router.push(`/orders/confirmation?courseId=${courseId}&orderId=${response.data.orderId}`);
     } catch (err: any) {
       console.error('Purchase failed:', err);
 
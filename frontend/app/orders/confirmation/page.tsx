@@ -23,9 +23,11 @@ function ConfirmationContent() {
   const router = useRouter();
   const searchParams = useSearchParams();
   const courseId = searchParams.get('courseId');
+  const orderId = searchParams.get('orderId');
 
   const [course, setCourse] = useState<Course | null>(null);
   const [loading, setLoading] = useState(true);
+  const [paymentStatus, setPaymentStatus] = useState<string>(orderId ? 'PENDING' : 'PAID');
 
   useEffect(() => {
     if (!courseId) {
@@ -49,7 +51,38 @@ function ConfirmationContent() {
     fetchCourse();
   }, [courseId, router]);
 
-  if (loading) {
+  // Payments are settled asynchronously: poll the order until it leaves PENDING
+  useEffect(() => {
+    if (!orderId) return;
+
+    let cancelled = false;
+    let attempts = 0;
+
+    const pollOrder = async () => {
+      try {
+        const response = await api.get(`/api/orders/${orderId}`);
+        if (cancelled) return;
+        setPaymentStatus(response.data.paymentStatus);
+        if (response.data.paymentStatus !== 'PENDING') return;
+      } catch (err) {
+        console.error('Failed to fetch order:', err);
+      }
+      if (cancelled) return;
+      if (++attempts < 30) {
+        setTimeout(pollOrder, 1000);
+      } else {
+        // Still processing: the order history shows the status once it settles
+        router.push('/orders');
+      }
+    };
+
+    pollOrder();
+    return () => {
+      cancelled = true;
+    };
+  }, [orderId, router]);
+
+  if (loading || paymentStatus === 'PENDING') {
     return (
       <div className="min-h-screen bg-gradient-to-br from-blue-50 via-white to-purple-50 pt-24 pb-12 px-4 sm:px-6 lg:px-8">
         <div className="flex justify-center items-center py-20">
@@ -59,6 +92,27 @@ function ConfirmationContent() {
     );
   }
 
+  if (paymentStatus !== 'PAID') {
+    return (
+      <div className="min-h-screen bg-gradient-to-br from-blue-50 via-white to-purple-50 pt-24 pb-12 px-4 sm:px-6 lg:px-8">
+        <div className="max-w-3xl mx-auto bg-white rounded-xl shadow-lg p-8 text-center">
+          <h1 className="text-3xl font-bold text-gray-900 mb-2">
+            付款未完成
+          </h1>
+          <p className="text-lg text-gray-600 mb-6">
+            此訂單已取消，請稍後再試
+          </p>
+          <button
+            onClick={() => router.push(`/courses/${courseId}`)}
+            className="px-8 py-3 bg-blue-600 text-white rounded-lg hover:bg-blue-700 transition-colors font-semibold shadow-md"
+          >
+            返回課程
+          </button>
+        </div>
+      </div>
+    );
+  }
+
   return (
     <div className="min-h-screen bg-gradient-to-br from-blue-50 via-white to-purple-50 pt-24 pb-12 px-4 sm:px-6 lg:px-8">
       <div className="max-w-3xl mx-auto">
@@ -32,6 +32,10 @@ export default function OrderHistoryPage() {
   const [orders, setOrders] = useState<Order[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  // Cursor of the next page (X-Next-Cursor header); null on the last page
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [loadMoreError, setLoadMoreError] = useState<string | null>(null);
 
   useEffect(() => {
     const fetchOrders = async () => {
@@ -39,6 +43,7 @@ export default function OrderHistoryPage() {
         setLoading(true);
         const response = await api.get('/api/orders');
         setOrders(response.data);
+        setNextCursor(response.headers['x-next-cursor'] ?? null);
         setError(null);
       } catch (err: any) {
         console.error('Failed to fetch orders:', err);
@@ -56,6 +61,23 @@ export default function OrderHistoryPage() {
     fetchOrders();
   }, [router]);
 
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+
+    try {
+      setLoadingMore(true);
+      const response = await api.get('/api/orders', { params: { cursor: nextCursor } });
+      setOrders((prev) => [...prev, ...response.data]);
+      setNextCursor(response.headers['x-next-cursor'] ?? null);
+      setLoadMoreError(null);
+    } catch (err: any) {
+      console.error('Failed to fetch more orders:', err);
+      setLoadMoreError('無法載入更多訂單，請稍後再試');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const formatDate = (dateString: string): string => {
     const date = new Date(dateString);
     return date.toLocaleDateString('zh-TW', {
@@ -228,6 +250,22 @@ export default function OrderHistoryPage() {
                 </div>
               </div>
             ))}
+
+            {/* Load More */}
+            {nextCursor && (
+              <div className="text-center pt-2">
+                {loadMoreError && (
+                  <p className="text-red-600 mb-3">{loadMoreError}</p>
+                )}
+                <button
+                  onClick={loadMore}
+                  disabled={loadingMore}
+                  className="px-6 py-3 bg-white text-blue-600 border border-blue-600 rounded-lg hover:bg-blue-50 transition-colors font-semibold disabled:opacity-50 disabled:cursor-not-allowed"
+                >
+                  {loadingMore ? '載入中...' : '載入更多訂單'}
+                </button>
+              </div>
+            )}
           </div>
         )}
       </div>